@@ -0,0 +1,27 @@
+package ru.practicum.config;
+
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import ru.practicum.security.CorrelationIdFilter;
+import ru.practicum.security.MdcTaskDecorator;
+
+@Configuration
+public class LoggingConfig {
+
+    //раньше цепочки Spring Security, чтобы requestId был и в логах отказов фильтра
+    @Bean
+    public FilterRegistrationBean<CorrelationIdFilter> correlationIdFilter() {
+        FilterRegistrationBean<CorrelationIdFilter> registration = new FilterRegistrationBean<>(new CorrelationIdFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    //login/register продолжаются на applicationTaskExecutor - requestId переезжает вместе с задачей
+    //(пул PasswordHasher переносит MDC сам)
+    @Bean
+    public MdcTaskDecorator mdcTaskDecorator() {
+        return new MdcTaskDecorator();
+    }
+}
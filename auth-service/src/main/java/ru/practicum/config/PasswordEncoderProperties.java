@@ -0,0 +1,45 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+//Параметры хэширования паролей (password.encoder.*); id - алгоритм для новых хэшей
+@ConfigurationProperties(prefix = "password.encoder")
+@Getter
+@Setter
+public class PasswordEncoderProperties {
+
+    //bcrypt, argon2 или pbkdf2
+    private String id = "bcrypt";
+
+    private Bcrypt bcrypt = new Bcrypt();
+
+    private Argon2 argon2 = new Argon2();
+
+    private Pbkdf2 pbkdf2 = new Pbkdf2();
+
+    @Getter
+    @Setter
+    public static class Bcrypt {
+        private int strength = 10;
+    }
+
+    @Getter
+    @Setter
+    public static class Argon2 {
+        private int saltLength = 16;
+        private int hashLength = 32;
+        private int parallelism = 1;
+        //в KiB
+        private int memory = 16384;
+        private int iterations = 2;
+    }
+
+    @Getter
+    @Setter
+    public static class Pbkdf2 {
+        private int saltLength = 16;
+        private int iterations = 310000;
+    }
+}
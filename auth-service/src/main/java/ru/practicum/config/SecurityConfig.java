@@ -1,23 +1,34 @@
 package ru.practicum.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import ru.practicum.security.JwtAuthenticationFilter;
+import ru.practicum.security.PublicPathsProperties;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Configuration
 @EnableWebSecurity
+@EnableConfigurationProperties({PasswordEncoderProperties.class, JwtSigningProperties.class,
+        PublicPathsProperties.class})
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthenticationFilter;
+    private final PublicPathsProperties publicPaths;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -26,10 +37,11 @@ public class SecurityConfig {
                 .addFilterBefore(jwtAuthenticationFilter,
                         UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/register").permitAll()
-                        .requestMatchers("/auth/login").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        //тот же список, что пропускает JwtAuthenticationFilter
+                        .requestMatchers(publicPaths.toArray()).permitAll()
                         .requestMatchers("/admin/**").hasRole("ADMIN")
+                        //metrics и loggers (POST меняет уровни логов); health - в public-paths
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .formLogin(form -> form.disable())
@@ -43,8 +55,25 @@ public class SecurityConfig {
 
     }
 
+    //Хэши хранятся с префиксом {id}; старые хэши без префикса считаются bcrypt
     @Bean
-    PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    PasswordEncoder passwordEncoder(PasswordEncoderProperties properties) {
+        Map<String, PasswordEncoder> encoders = passwordEncoders(properties);
+        DelegatingPasswordEncoder passwordEncoder = new DelegatingPasswordEncoder(properties.getId(), encoders);
+        passwordEncoder.setDefaultPasswordEncoderForMatches(encoders.get("bcrypt"));
+        return passwordEncoder;
+    }
+
+    static Map<String, PasswordEncoder> passwordEncoders(PasswordEncoderProperties properties) {
+        PasswordEncoderProperties.Argon2 argon2 = properties.getArgon2();
+        PasswordEncoderProperties.Pbkdf2 pbkdf2 = properties.getPbkdf2();
+
+        Map<String, PasswordEncoder> encoders = new HashMap<>();
+        encoders.put("bcrypt", new BCryptPasswordEncoder(properties.getBcrypt().getStrength()));
+        encoders.put("argon2", new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                argon2.getParallelism(), argon2.getMemory(), argon2.getIterations()));
+        encoders.put("pbkdf2", new Pbkdf2PasswordEncoder("", pbkdf2.getSaltLength(), pbkdf2.getIterations(),
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256));
+        return encoders;
     }
 }
\ No newline at end of file
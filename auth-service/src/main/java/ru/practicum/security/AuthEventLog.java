@@ -0,0 +1,71 @@
+package ru.practicum.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Одно итоговое событие на запрос auth-эндпоинта в логгер auth.events:
+ * event=login outcome=success user_id=42 duration_ms=180 (+ requestId из MDC в шаблоне).
+ * Email, пароли, хэши и токены сюда не передаются.
+ * Объем меняется без перезапуска через /actuator/loggers/auth.events:
+ * INFO - выборка по sample-rate, DEBUG - все события (и стек ошибок), OFF - ничего.
+ */
+@Component
+public class AuthEventLog {
+
+    public static final String LOGIN = "login";
+    public static final String REGISTER = "register";
+    public static final String REFRESH = "refresh";
+    public static final String LOGOUT = "logout";
+
+    private static final Logger log = LoggerFactory.getLogger("auth.events");
+
+    private final double successSampleRate;
+    private final double failureSampleRate;
+
+    public AuthEventLog(@Value("${auth.events.success-sample-rate:0.01}") double successSampleRate,
+                        @Value("${auth.events.failure-sample-rate:1.0}") double failureSampleRate) {
+        this.successSampleRate = successSampleRate;
+        this.failureSampleRate = failureSampleRate;
+    }
+
+    public void success(String event, Long userId, long startNanos) {
+        if (sampled(successSampleRate)) {
+            log.info("event={} outcome=success user_id={} duration_ms={}", event, userId, elapsedMillis(startNanos));
+        }
+    }
+
+    //ожидаемый отказ: неверный пароль, просроченный refresh-токен и т.п.
+    public void rejected(String event, String reason, Long userId, long startNanos) {
+        if (sampled(failureSampleRate)) {
+            log.info("event={} outcome={} user_id={} duration_ms={}", event, reason, userId, elapsedMillis(startNanos));
+        }
+    }
+
+    //в INFO только класс исключения: сообщение может содержать данные запроса
+    public void failure(String event, Long userId, long startNanos, Throwable error) {
+        if (log.isDebugEnabled()) {
+            log.debug("event={} outcome=error user_id={} duration_ms={} error={}",
+                    event, userId, elapsedMillis(startNanos), error.getClass().getSimpleName(), error);
+        } else if (sampled(failureSampleRate)) {
+            log.info("event={} outcome=error user_id={} duration_ms={} error={}",
+                    event, userId, elapsedMillis(startNanos), error.getClass().getSimpleName());
+        }
+    }
+
+    private static boolean sampled(double rate) {
+        if (!log.isInfoEnabled()) {
+            return false;
+        }
+        return log.isDebugEnabled() || rate >= 1.0 || ThreadLocalRandom.current().nextDouble() < rate;
+    }
+
+    private static long elapsedMillis(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+}
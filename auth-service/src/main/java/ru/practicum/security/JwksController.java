@@ -0,0 +1,25 @@
+package ru.practicum.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.Map;
+
+//Открытые ключи для проверки подписи токенов на других сервисах
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtSigningKeys signingKeys;
+
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofMinutes(5)).cachePublic())
+                .body(signingKeys.toJwkSet());
+    }
+}
@@ -5,7 +5,9 @@ import org.springframework.stereotype.Component;
 @Component
 public class JwtAuthenticationFilter extends CommonJwtAuthenticationFilter {
 
-    public JwtAuthenticationFilter(JwtService jwtService) {
-        super(jwtService);
+    public JwtAuthenticationFilter(JwtService jwtService, RevokedTokenStore revokedTokenStore,
+                                   PublicPathsProperties publicPaths) {
+        super(jwtService, VerifiedTokenCache.disabled(), revokedTokenStore,
+                new PublicPathMatcher(publicPaths.getPublicPaths()));
     }
-}
\ No newline at end of file
+}
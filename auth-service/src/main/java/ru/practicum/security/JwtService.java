@@ -1,42 +1,112 @@
 package ru.practicum.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import ru.practicum.user.Roles;
 
+import java.nio.ByteBuffer;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Locale;
 import java.util.UUID;
 
 @Service
 public class JwtService extends CommonJwtService {
 
-    public JwtService(@Value("${jwt.secret}") String secretKey,
-                      @Value("${jwt.expiration}") long expiration) {
-        super(secretKey, expiration);
+    private final JwtSigningKeys signingKeys;
+    private final TokenProfile profile;
+    private final boolean compactIncludeEmail;
+    private final Timer issueTimer;
+
+    public JwtService(@Value("${jwt.secret:}") String secretKey,
+                      @Value("${jwt.expiration}") long expiration,
+                      JwtSigningKeys signingKeys,
+                      @Value("${jwt.profile:FULL}") TokenProfile profile,
+                      @Value("${jwt.compact.include-email:false}") boolean compactIncludeEmail,
+                      MeterRegistry meterRegistry) {
+        super(secretKey, expiration, signingKeys.getKeyRing(), new JwtMetrics(meterRegistry));
+        this.signingKeys = signingKeys;
+        this.profile = profile;
+        this.compactIncludeEmail = compactIncludeEmail;
+        this.issueTimer = Timer.builder("jwt.issue")
+                .description("Access token signing")
+                .tag("algorithm", signingKeys.isAsymmetric() ? "RS256" : "HS256")
+                .tag("profile", profile.name().toLowerCase(Locale.ROOT))
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
-    public String generateToken(String username, String email, Roles role) {
-        Claims claims = Jwts.claims()
-                .setId(UUID.randomUUID().toString())
-                .setSubject(username)
-                .setIssuer("auth-service")
-                .setNotBefore(new Date())
-                .setAudience("gateway");
+    public long getExpiresInSeconds() {
+        return expiration / 1000;
+    }
 
-        claims.put("role", role.name());
-        claims.put("email", email);
+    public String generateToken(String username, String email, Roles role) {
+        return issueTimer.record(() -> sign(username, email, role));
+    }
 
+    private String sign(String username, String email, Roles role) {
         Date now = new Date();
         Date expirationDate = new Date(now.getTime() + expiration);
 
-        return Jwts.builder()
+        Claims claims = profile == TokenProfile.COMPACT
+                ? compactClaims(username, email, role)
+                : fullClaims(username, email, role, now);
+
+        JwtBuilder builder = Jwts.builder()
                 .setClaims(claims)
                 .setIssuedAt(now)
-                .setExpiration(expirationDate)
-                .signWith(SignatureAlgorithm.HS256, secretKey)
-                .compact();
+                .setExpiration(expirationDate);
+
+        if (signingKeys.isAsymmetric()) {
+            builder.setHeaderParam(JwsHeader.KEY_ID, signingKeys.getActiveKid())
+                    .signWith(signingKeys.getActivePrivateKey(), SignatureAlgorithm.RS256);
+        } else {
+            builder.signWith(SignatureAlgorithm.HS256, secretKey);
+        }
+        return builder.compact();
+    }
+
+    private Claims fullClaims(String username, String email, Roles role, Date now) {
+        Claims claims = Jwts.claims()
+                .setId(UUID.randomUUID().toString())
+                .setSubject(username)
+                .setIssuer(ISSUER)
+                .setNotBefore(now)
+                .setAudience(AUDIENCE);
+
+        claims.put(VerifiedToken.ROLE, role.name());
+        claims.put(VerifiedToken.EMAIL, email);
+        return claims;
+    }
+
+    //nbf не пишется: он совпадал бы с iat
+    private Claims compactClaims(String username, String email, Roles role) {
+        Claims claims = Jwts.claims()
+                .setId(compactId())
+                .setSubject(username)
+                .setIssuer(ISSUER)
+                .setAudience(AUDIENCE);
+
+        claims.put(VerifiedToken.COMPACT_ROLE, role.getCode());
+        if (compactIncludeEmail) {
+            claims.put(VerifiedToken.COMPACT_EMAIL, email);
+        }
+        return claims;
+    }
+
+    //те же 128 бит UUID, но 22 символа base64url вместо 36
+    private static String compactId() {
+        UUID uuid = UUID.randomUUID();
+        ByteBuffer bytes = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits());
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes.array());
     }
 }
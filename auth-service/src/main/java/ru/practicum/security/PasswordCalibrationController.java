@@ -0,0 +1,53 @@
+package ru.practicum.security;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.async.DeferredResult;
+import ru.practicum.exception.ServiceUnavailableException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+//Только для ADMIN (/admin/**): подбор password.encoder.* под целевое время хэширования.
+//Замеры идут на пуле PasswordHasher; targetMillis вне 50..2000 - 400 до запуска
+@RestController
+@RequestMapping("/admin/password-encoder")
+@RequiredArgsConstructor
+public class PasswordCalibrationController {
+
+    //при 2000 мс три алгоритма с повторными замерами идут дольше стандартного async-таймаута
+    private static final long TIMEOUT_MILLIS = 120_000;
+
+    private final PasswordCalibrator passwordCalibrator;
+    private final PasswordHasher passwordHasher;
+
+    @Value("${password.hashing.retry-after:1s}")
+    private Duration retryAfter;
+
+    @PostMapping("/calibrate")
+    public DeferredResult<List<PasswordCalibrator.Calibration>> calibrate(
+            @RequestParam(defaultValue = "250") @Min(50) @Max(2000) long targetMillis) {
+        DeferredResult<List<PasswordCalibrator.Calibration>> result = new DeferredResult<>(TIMEOUT_MILLIS);
+        try {
+            passwordHasher.calibrate(() -> passwordCalibrator.calibrate(targetMillis))
+                    .whenComplete((calibrations, e) -> {
+                        if (e == null) {
+                            result.setResult(calibrations);
+                        } else {
+                            result.setErrorResult(e instanceof CompletionException ? e.getCause() : e);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            throw new ServiceUnavailableException("Service is busy, retry later", retryAfter.toSeconds());
+        }
+        return result;
+    }
+}
@@ -0,0 +1,90 @@
+package ru.practicum.security;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.crypto.password.Pbkdf2PasswordEncoder;
+import org.springframework.stereotype.Service;
+import ru.practicum.config.PasswordEncoderProperties;
+
+import java.util.Arrays;
+import java.util.List;
+
+/*
+ * Подбирает параметры хэширования под целевое время на текущем железе:
+ * bcrypt - максимальный strength, укладывающийся в цель, pbkdf2 и argon2 - число итераций.
+ */
+@Service
+@RequiredArgsConstructor
+public class PasswordCalibrator {
+
+    private static final String SAMPLE_PASSWORD = "calibration-password";
+    private static final int MIN_BCRYPT_STRENGTH = 4;
+    private static final int MAX_BCRYPT_STRENGTH = 31;
+    private static final int PBKDF2_PROBE_ITERATIONS = 50_000;
+    private static final int SAMPLES = 3;
+
+    private final PasswordEncoderProperties properties;
+
+    public record Calibration(String encoder, String parameter, int value, long measuredMillis) {
+    }
+
+    public List<Calibration> calibrate(long targetMillis) {
+        return List.of(bcrypt(targetMillis), pbkdf2(targetMillis), argon2(targetMillis));
+    }
+
+    private Calibration bcrypt(long targetMillis) {
+        int strength = MIN_BCRYPT_STRENGTH;
+        long millis = measure(new BCryptPasswordEncoder(strength));
+        //каждый шаг strength удваивает время
+        while (strength < MAX_BCRYPT_STRENGTH && millis * 2 <= targetMillis) {
+            strength++;
+            millis = measure(new BCryptPasswordEncoder(strength));
+        }
+        return new Calibration("bcrypt", "strength", strength, millis);
+    }
+
+    private Calibration pbkdf2(long targetMillis) {
+        PasswordEncoderProperties.Pbkdf2 pbkdf2 = properties.getPbkdf2();
+        long probeMillis = Math.max(1, measure(pbkdf2(pbkdf2.getSaltLength(), PBKDF2_PROBE_ITERATIONS)));
+        int iterations = scale(PBKDF2_PROBE_ITERATIONS, probeMillis, targetMillis);
+        return new Calibration("pbkdf2", "iterations", iterations,
+                measure(pbkdf2(pbkdf2.getSaltLength(), iterations)));
+    }
+
+    //память argon2 оставляем из настроек, подбираем только число проходов
+    private Calibration argon2(long targetMillis) {
+        PasswordEncoderProperties.Argon2 argon2 = properties.getArgon2();
+        long probeMillis = Math.max(1, measure(argon2(argon2, 1)));
+        int iterations = scale(1, probeMillis, targetMillis);
+        return new Calibration("argon2", "iterations", iterations, measure(argon2(argon2, iterations)));
+    }
+
+    private static int scale(int probe, long probeMillis, long targetMillis) {
+        return (int) Math.max(1, Math.min(Integer.MAX_VALUE, probe * targetMillis / probeMillis));
+    }
+
+    private static PasswordEncoder pbkdf2(int saltLength, int iterations) {
+        return new Pbkdf2PasswordEncoder("", saltLength, iterations,
+                Pbkdf2PasswordEncoder.SecretKeyFactoryAlgorithm.PBKDF2WithHmacSHA256);
+    }
+
+    private static PasswordEncoder argon2(PasswordEncoderProperties.Argon2 argon2, int iterations) {
+        return new Argon2PasswordEncoder(argon2.getSaltLength(), argon2.getHashLength(),
+                argon2.getParallelism(), argon2.getMemory(), iterations);
+    }
+
+    //медиана нескольких замеров encode
+    private static long measure(PasswordEncoder encoder) {
+        encoder.encode(SAMPLE_PASSWORD);
+        long[] samples = new long[SAMPLES];
+        for (int i = 0; i < SAMPLES; i++) {
+            long start = System.nanoTime();
+            encoder.encode(SAMPLE_PASSWORD);
+            samples[i] = (System.nanoTime() - start) / 1_000_000;
+        }
+        Arrays.sort(samples);
+        return samples[SAMPLES / 2];
+    }
+}
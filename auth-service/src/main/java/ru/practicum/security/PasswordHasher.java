@@ -0,0 +1,107 @@
+package ru.practicum.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * BCrypt выполняется на отдельном пуле по числу CPU с ограниченной очередью,
+ * чтобы шторм логинов не занимал потоки Tomcat. При переполнении задача отклоняется сразу
+ * (RejectedExecutionException -> 503 с Retry-After).
+ */
+@Service
+public class PasswordHasher {
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final Executor mdcExecutor;
+    private final Timer encodeTimer;
+    private final Timer matchesTimer;
+    private final Timer calibrateTimer;
+    private final Counter rejected;
+
+    public PasswordHasher(PasswordEncoder passwordEncoder,
+                          @Value("${password.hashing.threads:0}") int threads,
+                          @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+                          MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+
+        //BCrypt нагружает CPU, поэтому и при spring.threads.virtual.enabled пул остается
+        //ограниченным и на платформенных потоках: он же дает обратное давление через очередь
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("password-hasher-"),
+                new ThreadPoolExecutor.AbortPolicy());
+        //MDC восстанавливается на всю задачу, включая запуск зависимых стадий: thenApplyAsync(..., taskExecutor)
+        //отправляется из потока хэшера, и MdcTaskDecorator пула задач берет requestId именно отсюда
+        MdcTaskDecorator mdc = new MdcTaskDecorator();
+        this.mdcExecutor = task -> executor.execute(mdc.decorate(task));
+
+        //executor.queued, executor.active, executor.pool.size ... с тегом name=password-hasher
+        new ExecutorServiceMetrics(executor, "password-hasher", Tags.empty()).bindTo(meterRegistry);
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.calibrateTimer = hashTimer(meterRegistry, "calibrate");
+        this.rejected = Counter.builder("auth.password.hash.rejected")
+                .description("Password hashing tasks rejected because the queue was full")
+                .register(meterRegistry);
+    }
+
+    public CompletableFuture<String> encode(CharSequence rawPassword) {
+        return submit(encodeTimer, () -> passwordEncoder.encode(rawPassword));
+    }
+
+    public CompletableFuture<Boolean> matches(CharSequence rawPassword, String encodedPassword) {
+        return submit(matchesTimer, () -> passwordEncoder.matches(rawPassword, encodedPassword));
+    }
+
+    //подбор параметров хэширования: на этом же пуле, чтобы замеры не шли параллельно с логинами
+    //сверх числа CPU и не занимали поток Tomcat
+    public <T> CompletableFuture<T> calibrate(Supplier<T> calibration) {
+        return submit(calibrateTimer, calibration);
+    }
+
+    //хэш без префикса {id}, другим алгоритмом или с меньшей стоимостью, чем в настройках
+    public boolean upgradeEncoding(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Timer timer, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(() -> timer.record(task), mdcExecutor);
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw e;
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("auth.password.hash")
+                .description("Time spent in the password encoder")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
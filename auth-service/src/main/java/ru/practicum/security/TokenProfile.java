@@ -0,0 +1,9 @@
+package ru.practicum.security;
+
+//Набор claims в выпускаемых токенах (jwt.profile)
+public enum TokenProfile {
+    //role и email строками, nbf, jti - UUID
+    FULL,
+    //роль кодом в "r", email в "e" только по jwt.compact.include-email, без nbf, jti - 22 символа base64url
+    COMPACT
+}
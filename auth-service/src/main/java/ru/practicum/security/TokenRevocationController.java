@@ -0,0 +1,40 @@
+package ru.practicum.security;
+
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.user.ResponseMsg;
+import ru.practicum.user.RevokeTokenRequest;
+
+import java.time.Duration;
+import java.time.Instant;
+
+//Только для ADMIN (/admin/**): отзыв чужого токена по jti
+@RestController
+@RequestMapping("/admin/tokens")
+public class TokenRevocationController {
+
+    private final TokenRevocationService revocationService;
+    private final Duration maxTokenLifetime;
+
+    public TokenRevocationController(TokenRevocationService revocationService,
+                                     @Value("${jwt.expiration}") long expiration) {
+        this.revocationService = revocationService;
+        this.maxTokenLifetime = Duration.ofMillis(expiration);
+    }
+
+    @PostMapping("/revoke")
+    public ResponseMsg revoke(@RequestBody @Valid RevokeTokenRequest request) {
+        Instant expiresAt = request.getExpiresAt() != null
+                ? request.getExpiresAt()
+                : Instant.now().plus(maxTokenLifetime);
+        revocationService.revoke(request.getJti(), expiresAt);
+
+        return ResponseMsg.builder()
+                .message("Token revoked: " + request.getJti())
+                .build();
+    }
+}
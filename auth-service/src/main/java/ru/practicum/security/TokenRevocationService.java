@@ -0,0 +1,44 @@
+package ru.practicum.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+
+//Отзыв применяется локально сразу, остальным узлам рассылается через Kafka
+@Service
+@Slf4j
+public class TokenRevocationService {
+
+    private final RevokedTokenStore revokedTokens;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final boolean kafkaEnabled;
+    private final String topic;
+
+    public TokenRevocationService(RevokedTokenStore revokedTokens,
+                                  KafkaTemplate<String, String> kafkaTemplate,
+                                  @Value("${jwt.revocation.kafka.enabled:false}") boolean kafkaEnabled,
+                                  @Value("${jwt.revocation.topic}") String topic) {
+        this.revokedTokens = revokedTokens;
+        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaEnabled = kafkaEnabled;
+        this.topic = topic;
+    }
+
+    //send ждет метаданные топика внутри synchronized kafka-clients (закрепляет виртуальный поток),
+    //поэтому ожидание ограничено spring.kafka.producer max.block.ms
+    public void revoke(String jti, Instant expiresAt) {
+        revokedTokens.revoke(jti, expiresAt);
+        if (!kafkaEnabled) {
+            return;
+        }
+        kafkaTemplate.send(topic, jti, String.valueOf(expiresAt.getEpochSecond()))
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.error("Failed to publish revocation of jti {}", jti, e);
+                    }
+                });
+    }
+}
@@ -1,14 +1,30 @@
 package ru.practicum.user;
 
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import ru.practicum.security.CommonJwtService;
+import ru.practicum.exception.BusinessException;
+import ru.practicum.exception.ProblemBody;
+import ru.practicum.exception.UnauthorizedException;
+import ru.practicum.security.AuthEventLog;
 import ru.practicum.security.JwtService;
-
-import java.util.HashMap;
-import java.util.Map;
+import ru.practicum.security.LoginRateLimitedException;
+import ru.practicum.security.LoginRateLimiter;
+import ru.practicum.security.PasswordHasher;
+import ru.practicum.security.TokenRevocationService;
+import ru.practicum.security.TokenValidationResponses;
+import ru.practicum.security.VerifiedToken;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/auth")
@@ -16,128 +32,206 @@ import java.util.Map;
 @Slf4j
 public class AuthController {
 
+    private static final ResponseMsg INVALID_TOKEN = ResponseMsg.builder()
+            .message("Invalid Token")
+            .build();
+    private static final ProblemBody SERVICE_BUSY =
+            ProblemBody.of(HttpStatus.SERVICE_UNAVAILABLE, "Service is busy, retry later");
+
     private final UserService userService;
     private final JwtService jwtService;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHasher passwordHasher;
+    private final TokenRevocationService revocationService;
+    private final RefreshTokenService refreshTokenService;
+    private final AsyncTaskExecutor taskExecutor;
+    private final AuthEventLog authEvents;
+    private final LoginRateLimiter loginRateLimiter;
 
+    @Value("${password.hashing.retry-after:1s}")
+    private Duration retryAfter;
 
-    //Регистрация
+
+    //Регистрация: хэш считается на пуле PasswordHasher, сохранение - на общем пуле задач.
+    //Занятый email определяется самим INSERT (409), без отдельного запроса
     @PostMapping("/register")
-    public ResponseMsg register(@RequestBody RegisterRequest request) {
-        if (userService.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists");
+    public CompletableFuture<ResponseMsg> register(@RequestBody RegisterRequest request) {
+        long start = System.nanoTime();
+        return passwordHasher.encode(request.getPassword())
+                .thenApplyAsync(passwordHash -> {
+                    User user = User.builder()
+                            .username(request.getUsername())
+                            .email(request.getEmail())
+                            .password(passwordHash) //важно
+                            .role(Roles.USER)
+                            .build();
+
+                    userService.register(user);
+                    authEvents.success(AuthEventLog.REGISTER, user.getId(), start);
+
+                    return ResponseMsg.builder()
+                            .message("User successfully registered with id: " + user.getId())
+                            .build();
+                }, taskExecutor)
+                .whenComplete((response, e) -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause instanceof EmailAlreadyExistsException) {
+                        authEvents.rejected(AuthEventLog.REGISTER, "email_taken", null, start);
+                    } else if (cause != null) {
+                        authEvents.failure(AuthEventLog.REGISTER, null, start, cause);
+                    }
+                });
+    }
+
+    //логин: поток Tomcat освобождается, пока BCrypt сверяет пароль; в лог - одно событие auth.events
+    //неизвестный email и неверный пароль неразличимы для клиента: 401 с одним и тем же текстом
+    @PostMapping("/login")
+    public CompletableFuture<TokenResponse> login(@RequestBody LoginRequest request) {
+        long start = System.nanoTime();
+
+        //до поиска пользователя и BCrypt: перебор по одному email не стоит ни запроса в БД, ни хэша
+        long retryAfter = loginRateLimiter.checkEmail(request.getEmail());
+        if (retryAfter > 0) {
+            authEvents.rejected(AuthEventLog.LOGIN, "rate_limited", null, start);
+            throw new LoginRateLimitedException(retryAfter);
         }
 
-        User user = User.builder()
-                .username(request.getUsername())
-                .email(request.getEmail())
-                .password(passwordEncoder.encode(request.getPassword())) //важно
-                .role(Roles.USER)
-                .build();
+        UserCredentials user = userService.findCredentialsByEmail(request.getEmail()).orElse(null);
+        if (user == null) {
+            loginRateLimiter.recordFailure(request.getEmail());
+            authEvents.rejected(AuthEventLog.LOGIN, "unknown_user", null, start);
+            throw new InvalidCredentialsException();
+        }
 
-        userService.save(user);
+        //после проверки пароля - запись refresh-токена в БД, поэтому на общем пуле задач
+        return passwordHasher.matches(request.getPassword(), user.password())
+                .thenApplyAsync(passwordMatches -> {
+                    if (!passwordMatches) {
+                        loginRateLimiter.recordFailure(request.getEmail());
+                        authEvents.rejected(AuthEventLog.LOGIN, "bad_credentials", user.id(), start);
+                        throw new InvalidCredentialsException();
+                    }
+
+                    loginRateLimiter.recordSuccess(request.getEmail());
+                    upgradePasswordHash(user, request.getPassword());
+
+                    //генерируем токен
+                    String token = jwtService.generateToken(
+                            user.username(),
+                            user.email(),
+                            user.role()
+                    );
+
+                    String refreshToken = refreshTokenService.issue(user.id());
+
+                    authEvents.success(AuthEventLog.LOGIN, user.id(), start);
+
+                    //Возвращаем токен клиенту
+                    return tokenResponse(token, refreshToken, user);
+                }, taskExecutor)
+                .whenComplete((response, e) -> {
+                    Throwable cause = e instanceof CompletionException ? e.getCause() : e;
+                    if (cause != null && !(cause instanceof BusinessException)) {
+                        authEvents.failure(AuthEventLog.LOGIN, user.id(), start, cause);
+                    }
+                });
+    }
 
-        return ResponseMsg.builder()
-                .message("User successfully registered with id: " + user.getId())
+    //Обновление пары токенов: один поиск по индексу и одна подпись, без BCrypt
+    @PostMapping("/refresh")
+    public TokenResponse refresh(@RequestBody @Valid RefreshRequest request) {
+        long start = System.nanoTime();
+        RefreshTokenService.Rotation rotation;
+        try {
+            rotation = refreshTokenService.rotate(request.getRefreshToken());
+        } catch (UnauthorizedException e) {
+            authEvents.rejected(AuthEventLog.REFRESH, "invalid_refresh_token", null, start);
+            throw e;
+        }
+        UserCredentials user = rotation.user();
+
+        String token = jwtService.generateToken(user.username(), user.email(), user.role());
+        authEvents.success(AuthEventLog.REFRESH, user.id(), start);
+
+        return tokenResponse(token, rotation.refreshToken(), user);
+    }
+
+    private TokenResponse tokenResponse(String accessToken, String refreshToken, UserCredentials user) {
+        return TokenResponse.builder()
+                .accessToken(accessToken)
+                .refreshToken(refreshToken)
+                .expiresIn(jwtService.getExpiresInSeconds())
+                .user(TokenResponse.UserInfo.builder()
+                        .id(user.id())
+                        .username(user.username())
+                        .email(user.email())
+                        .role(user.role())
+                        .build())
                 .build();
     }
 
-    //логин
-    @PostMapping("/login")
-    public ResponseMsg login(@RequestBody LoginRequest request) {
-        log.info("=== LOGIN ATTEMPT ===");
-        log.info("Email: {}", request.getEmail());
-        log.info("Password length: {}", request.getPassword() != null ? request.getPassword().length() : "null");
+    //устаревший хэш пересчитывается в фоне и не задерживает ответ; при занятом пуле - в следующий раз
+    private void upgradePasswordHash(UserCredentials user, String rawPassword) {
+        if (!passwordHasher.upgradeEncoding(user.password())) {
+            return;
+        }
         try {
+            passwordHasher.encode(rawPassword)
+                    .thenAcceptAsync(passwordHash -> userService.updatePassword(user, passwordHash), taskExecutor)
+                    .exceptionally(e -> {
+                        log.warn("Password rehash failed for user id {}", user.id(), e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            log.debug("Password rehash skipped for user id {}: hashing pool is busy", user.id());
+        }
+    }
+
+    //очередь PasswordHasher переполнена - быстрый отказ вместо ожидания
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<byte[]> hashingOverloaded() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter.toSeconds()));
+        return SERVICE_BUSY.toResponseEntity(headers);
+    }
 
-            User user = userService.findByEmail(request.getEmail());
-            log.info("User found: {} (ID: {})", user.getUsername(), user.getId());
-            log.info("DB password hash: {}", user.getPassword().substring(0, Math.min(30, user.getPassword().length())) + "...");
-
-
-            boolean passwordMatches = passwordEncoder.matches(request.getPassword(), user.getPassword());
-            log.info("Password matches: {}", passwordMatches);
-
-            if (!passwordMatches) {
-                log.warn("Password mismatch!");
-                return ResponseMsg.builder()
-                        .message("Logging error: Password mismatch!")
-                        .build();
-            }
-
-            log.info("Authentication successful!");
-
-            //генерируем токен
-            String token = jwtService.generateToken(
-                    user.getUsername(),
-                    user.getEmail(),
-                    user.getRole()
-            );
-
-            log.info("Token generated (first 30 chars): {}...", token.substring(0, Math.min(30, token.length())));
-
-            //Возвращаем токен клиенту
-            // 4. Возвращаем ответ
-            Map<String, Object> response = new HashMap<>();
-            response.put("access_token", token);
-            response.put("token_type", "Bearer");
-            response.put("expires_in", 86400);
-
-            Map<String, Object> userInfo = new HashMap<>();
-            userInfo.put("id", user.getId());
-            userInfo.put("username", user.getUsername());
-            userInfo.put("email", user.getEmail());
-            userInfo.put("role", user.getRole().name());
-            response.put("user", userInfo);
-
-            log.info("Login successful for user: {}", user.getUsername());
-
-            return ResponseMsg.builder()
-                    .message("Logging successfully: " + response)
-                    .build();
-        } catch (Exception e) {
-            log.error("=== LOGIN ERROR ===");
-            log.error("Error type: {}", e.getClass().getName());
-            log.error("Error message: {}", e.getMessage());
-            log.error("Stack trace:", e);
-
-            return ResponseMsg.builder()
-                    .message("some error message: " + e.getMessage())
-                    .build();
+    //Выход: текущий токен отзывается до своего exp (фильтр уже проверил подпись),
+    //переданный refresh-токен - вместе со всей цепочкой ротаций
+    @PostMapping("/logout")
+    public ResponseMsg logout(@RequestHeader("Authorization") String authHeader,
+                              @RequestBody(required = false) RefreshRequest request) {
+        long start = System.nanoTime();
+        VerifiedToken verified = jwtService.verify(authHeader, 7).orElse(null);
+        if (verified == null) {
+            authEvents.rejected(AuthEventLog.LOGOUT, "invalid_token", null, start);
+            return INVALID_TOKEN;
+        }
 
+        revocationService.revoke(verified.getJwtId(), verified.getExpiration());
+        if (request != null && request.getRefreshToken() != null && !request.getRefreshToken().isBlank()) {
+            refreshTokenService.revokeFamily(request.getRefreshToken(), verified.getSubject());
         }
+        authEvents.success(AuthEventLog.LOGOUT, null, start);
+
+        return ResponseMsg.builder()
+                .message("Logged out")
+                .build();
     }
 
     //Валидация токена
     @PostMapping("/validate")
-    public ResponseMsg validateToken(@RequestHeader("Authorization") String authHeader) {
+    public ValidationResult validateToken(@RequestHeader("Authorization") String authHeader) {
         if (authHeader == null || !authHeader.startsWith("Bearer")) {
-            return ResponseMsg.builder()
-                    .message("Invalid Header")
-                    .build();
+            return TokenValidationResponses.invalidHeader();
         }
 
         String token = authHeader.substring(7);
-        boolean isValid = jwtService.validateToken(token);
+        VerifiedToken verified = jwtService.verify(token).orElse(null);
 
-        if (!isValid) {
-            return ResponseMsg.builder()
-                    .message("Invalid Token")
-                    .build();
+        if (verified == null) {
+            return TokenValidationResponses.invalidToken();
         }
 
-        String username = jwtService.extractUsername(token);
-        String role = jwtService.extractRole(token);
-
-        Map<String, Object> response = new HashMap<>();
-        response.put("valid", true);
-        response.put("username", username);
-        response.put("role", role);
-        response.put("message", "Token is valid");
-
-        return ResponseMsg.builder()
-                .message("Token is ok: " + response)
-                .build();
+        return TokenValidationResponses.valid(verified);
     }
 
 }
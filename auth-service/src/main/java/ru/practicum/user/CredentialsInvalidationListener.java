@@ -0,0 +1,31 @@
+package ru.practicum.user;
+
+import lombok.RequiredArgsConstructor;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/*
+ * Сбросы кэша учетных данных с других узлов (и собственные - повторный сброс безвреден).
+ * У каждого узла своя группа: сообщение должны получить все экземпляры.
+ * История не нужна - после старта кэш пустой, поэтому чтение с конца топика.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "auth.credentials-cache.kafka.enabled", havingValue = "true")
+public class CredentialsInvalidationListener {
+
+    private final UserCredentialsCache credentialsCache;
+
+    @KafkaListener(
+            topics = "${auth.credentials-cache.topic:auth.credentials-invalidations}",
+            groupId = "${spring.application.name}-credentials-${jwt.revocation.kafka.instance-id:${HOSTNAME:local}}",
+            properties = {"auto.offset.reset=latest"}
+    )
+    public void onInvalidated(ConsumerRecord<String, String> record) {
+        if (record.key() != null) {
+            credentialsCache.invalidate(record.key());
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package ru.practicum.user;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/*
+ * Сброс записи кэша учетных данных на всех узлах auth-service: локально и через Kafka (ключ - email).
+ * Внутри транзакции выполняется после коммита, иначе параллельный промах успел бы
+ * прочитать и закэшировать старые данные.
+ */
+@Service
+@Slf4j
+public class CredentialsInvalidationService {
+
+    private final UserCredentialsCache credentialsCache;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final boolean kafkaEnabled;
+    private final String topic;
+
+    public CredentialsInvalidationService(UserCredentialsCache credentialsCache,
+                                          KafkaTemplate<String, String> kafkaTemplate,
+                                          @Value("${auth.credentials-cache.kafka.enabled:false}") boolean kafkaEnabled,
+                                          @Value("${auth.credentials-cache.topic:auth.credentials-invalidations}") String topic) {
+        this.credentialsCache = credentialsCache;
+        this.kafkaTemplate = kafkaTemplate;
+        this.kafkaEnabled = kafkaEnabled;
+        this.topic = topic;
+    }
+
+    public void invalidate(String email) {
+        String key = UserCredentialsCache.normalize(email);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            apply(key);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                apply(key);
+            }
+        });
+    }
+
+    private void apply(String email) {
+        credentialsCache.invalidate(email);
+        if (!kafkaEnabled) {
+            return;
+        }
+        kafkaTemplate.send(topic, email, "")
+                .whenComplete((result, e) -> {
+                    if (e != null) {
+                        log.error("Failed to publish credentials invalidation", e);
+                    }
+                });
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.user;
+
+import org.springframework.http.HttpStatus;
+import ru.practicum.exception.ConflictException;
+import ru.practicum.exception.ProblemBody;
+
+//409 при регистрации на занятый email; без стека - поток повторных регистраций не должен стоить дороже INSERT
+public class EmailAlreadyExistsException extends ConflictException {
+
+    private static final ProblemBody BODY = ProblemBody.of(HttpStatus.CONFLICT, "Email already exists");
+
+    public EmailAlreadyExistsException() {
+        super(BODY);
+    }
+}
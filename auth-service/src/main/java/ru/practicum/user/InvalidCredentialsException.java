@@ -0,0 +1,15 @@
+package ru.practicum.user;
+
+import org.springframework.http.HttpStatus;
+import ru.practicum.exception.ProblemBody;
+import ru.practicum.exception.UnauthorizedException;
+
+//401 на неверный пароль и неизвестный email (текст одинаковый); без стека - обычный исход при переборе
+public class InvalidCredentialsException extends UnauthorizedException {
+
+    private static final ProblemBody BODY = ProblemBody.of(HttpStatus.UNAUTHORIZED, "Invalid email or password");
+
+    public InvalidCredentialsException() {
+        super(BODY);
+    }
+}
@@ -0,0 +1,45 @@
+package ru.practicum.user;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+//Хранится только SHA-256 от значения токена; все токены одной цепочки ротаций имеют общий familyId
+@Entity
+@Table(name = "refresh_tokens")
+@ToString(exclude = "user")
+@Getter
+@Setter
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RefreshToken {
+
+    @Id
+    @EqualsAndHashCode.Include
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "refresh_tokens_seq")
+    @SequenceGenerator(name = "refresh_tokens_seq", sequenceName = "refresh_tokens_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "family_id", nullable = false, length = 36)
+    private String familyId;
+
+    @Column(name = "expires_at", nullable = false)
+    private Instant expiresAt;
+
+    @Column(name = "used", nullable = false)
+    private boolean used;
+
+    //момент ротации: использованные записи хранятся только на время окна обнаружения повторов
+    @Column(name = "used_at")
+    private Instant usedAt;
+}
@@ -0,0 +1,34 @@
+package ru.practicum.user;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    //один запрос по уникальному индексу token_hash вместе с пользователем
+    @Query("select r from RefreshToken r join fetch r.user where r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    //0 - токен уже использован параллельным запросом
+    @Modifying
+    @Query("update RefreshToken r set r.used = true, r.usedAt = :usedAt where r.id = :id and r.used = false")
+    int markUsed(@Param("id") Long id, @Param("usedAt") Instant usedAt);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.familyId = :familyId")
+    int deleteFamily(@Param("familyId") String familyId);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+
+    //записи без used_at (до миграции 006) удаляются только по expires_at
+    @Modifying
+    @Query("delete from RefreshToken r where r.used = true and r.usedAt < :usedBefore")
+    int deleteUsedBefore(@Param("usedBefore") Instant usedBefore);
+}
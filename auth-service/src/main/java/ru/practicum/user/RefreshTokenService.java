@@ -0,0 +1,133 @@
+package ru.practicum.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.exception.ProblemBody;
+import ru.practicum.exception.UnauthorizedException;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/*
+ * Refresh-токены: случайные 256 бит, в БД только SHA-256 (BCrypt не нужен - значение не подбирается).
+ * Каждый токен одноразовый: при обновлении выдается новый из той же цепочки.
+ * Повторное предъявление использованного токена считается кражей - удаляется вся цепочка.
+ * Использованные записи хранятся reuse-detection-window, истекшие удаляются периодической очисткой.
+ */
+@Service
+@Slf4j
+public class RefreshTokenService {
+
+    private static final ProblemBody INVALID_TOKEN = ProblemBody.of(HttpStatus.UNAUTHORIZED, "Invalid refresh token");
+    private static final ProblemBody EXPIRED_TOKEN = ProblemBody.of(HttpStatus.UNAUTHORIZED, "Refresh token expired");
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final UserRepository userRepository;
+    private final Duration ttl;
+    private final Duration reuseDetectionWindow;
+    private final Timer lookupTimer;
+    private final SecureRandom random = new SecureRandom();
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               UserRepository userRepository,
+                               @Value("${jwt.refresh.expiration:30d}") Duration ttl,
+                               @Value("${jwt.refresh.reuse-detection-window:7d}") Duration reuseDetectionWindow,
+                               MeterRegistry meterRegistry) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.userRepository = userRepository;
+        this.ttl = ttl;
+        this.reuseDetectionWindow = reuseDetectionWindow;
+        this.lookupTimer = UserCredentialsCache.lookupTimer(meterRegistry, "refresh_token_by_hash");
+    }
+
+    @Transactional
+    public String issue(Long userId) {
+        return issue(userRepository.getReferenceById(userId), UUID.randomUUID().toString());
+    }
+
+    //ошибки повторного использования не откатывают удаление цепочки
+    @Transactional(noRollbackFor = UnauthorizedException.class)
+    public Rotation rotate(String refreshToken) {
+        String tokenHash = hash(refreshToken);
+        RefreshToken current = lookupTimer.record(() -> refreshTokenRepository.findByTokenHash(tokenHash))
+                .orElseThrow(() -> new UnauthorizedException(INVALID_TOKEN));
+
+        if (current.isUsed() || refreshTokenRepository.markUsed(current.getId(), Instant.now()) == 0) {
+            refreshTokenRepository.deleteFamily(current.getFamilyId());
+            log.warn("Refresh token reuse detected for user id {}, family {} revoked",
+                    current.getUser().getId(), current.getFamilyId());
+            throw new UnauthorizedException(INVALID_TOKEN);
+        }
+        if (current.getExpiresAt().isBefore(Instant.now())) {
+            throw new UnauthorizedException(EXPIRED_TOKEN);
+        }
+
+        User user = current.getUser();
+        String next = issue(user, current.getFamilyId());
+        UserCredentials credentials = new UserCredentials(
+                user.getId(), user.getUsername(), user.getEmail(), user.getPassword(), user.getRole());
+        return new Rotation(credentials, next);
+    }
+
+    //Выход: удаляется вся цепочка, иначе refresh-токен продолжает выдавать новые access-токены.
+    //Чужой, неизвестный или уже удаленный токен игнорируется - выход идемпотентен
+    @Transactional
+    public void revokeFamily(String refreshToken, String username) {
+        String tokenHash = hash(refreshToken);
+        lookupTimer.record(() -> refreshTokenRepository.findByTokenHash(tokenHash))
+                .filter(token -> token.getUser().getUsername().equals(username))
+                .ifPresent(token -> refreshTokenRepository.deleteFamily(token.getFamilyId()));
+    }
+
+    //на нескольких узлах очистка идет параллельно - удаление идемпотентно
+    @Scheduled(fixedDelayString = "${jwt.refresh.purge-interval:PT1H}",
+            initialDelayString = "${jwt.refresh.purge-interval:PT1H}")
+    @Transactional
+    public void purge() {
+        Instant now = Instant.now();
+        int expired = refreshTokenRepository.deleteExpired(now);
+        int used = refreshTokenRepository.deleteUsedBefore(now.minus(reuseDetectionWindow));
+        if (expired > 0 || used > 0) {
+            log.info("Refresh tokens purged: {} expired, {} used", expired, used);
+        }
+    }
+
+    private String issue(User user, String familyId) {
+        byte[] value = new byte[32];
+        random.nextBytes(value);
+        String refreshToken = Base64.getUrlEncoder().withoutPadding().encodeToString(value);
+
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(refreshToken))
+                .user(user)
+                .familyId(familyId)
+                .expiresAt(Instant.now().plus(ttl))
+                .build());
+        return refreshToken;
+    }
+
+    private static String hash(String refreshToken) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(refreshToken.getBytes(StandardCharsets.US_ASCII)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    public record Rotation(UserCredentials user, String refreshToken) {
+    }
+}
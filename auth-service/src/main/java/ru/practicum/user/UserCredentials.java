@@ -0,0 +1,5 @@
+package ru.practicum.user;
+
+//Только то, что нужно для логина: без загрузки всей сущности User
+public record UserCredentials(Long id, String username, String email, String password, Roles role) {
+}
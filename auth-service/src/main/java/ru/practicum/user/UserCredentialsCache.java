@@ -0,0 +1,113 @@
+package ru.practicum.user;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.Cache;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Read-through кэш UserCredentials по email в нижнем регистре.
+ * Неизвестные email тоже кэшируются (пустой Optional) на короткое время, чтобы перебор не доходил до БД.
+ * Любое изменение пароля или роли должно идти через CredentialsInvalidationService:
+ * он сбрасывает запись и здесь, и на остальных узлах (Kafka). Без Kafka остальные узлы
+ * видят изменение только через ttl, т.е. такой режим подходит лишь для одного экземпляра.
+ * Запрос к БД выполняется вне кэша, а не в загрузчике LoadingCache: загрузчик работает внутри
+ * ConcurrentHashMap.compute (synchronized), и на JDK 21 виртуальный поток был бы закреплен
+ * на carrier на всё время запроса. Цена - одновременные промахи по одному email идут в БД параллельно.
+ */
+@Component
+public class UserCredentialsCache {
+
+    private final Cache<String, Optional<UserCredentials>> cache;
+    private final TransactionTemplate readOnly;
+    private final UserRepository userRepository;
+    private final Timer lookupTimer;
+    //растет при каждом invalidate: результат запроса, начатого до него, в кэш не кладется
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public UserCredentialsCache(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${auth.credentials-cache.max-size:10000}") long maxSize,
+                                @Value("${auth.credentials-cache.ttl:5m}") Duration ttl,
+                                @Value("${auth.credentials-cache.negative-ttl:30s}") Duration negativeTtl,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnly = new TransactionTemplate(transactionManager);
+        this.readOnly.setReadOnly(true);
+        this.lookupTimer = lookupTimer(meterRegistry, "credentials_by_email");
+
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new CredentialsExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+
+        //cache.gets{result=hit|miss}, cache.evictions с тегом cache=user.credentials; время запросов - auth.db.lookup
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "user.credentials");
+    }
+
+    public Optional<UserCredentials> get(String email) {
+        String key = normalize(email);
+        Optional<UserCredentials> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        long generation = invalidations.get();
+        Optional<UserCredentials> loaded = lookupTimer.record(
+                () -> readOnly.execute(status -> userRepository.findCredentialsByEmail(key)));
+        //compute без ввода-вывода внутри; invalidate после проверки все равно удалит запись
+        cache.asMap().compute(key, (k, current) -> invalidations.get() == generation ? loaded : current);
+        return loaded;
+    }
+
+    public void invalidate(String email) {
+        invalidations.incrementAndGet();
+        cache.invalidate(normalize(email));
+    }
+
+    public static String normalize(String email) {
+        return email.toLowerCase(Locale.ROOT);
+    }
+
+    //auth.db.lookup{query} - время запросов к БД на пути логина/обновления токена (промахи кэша)
+    static Timer lookupTimer(MeterRegistry meterRegistry, String query) {
+        return Timer.builder("auth.db.lookup")
+                .description("Database lookups on the authentication path")
+                .tag("query", query)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private record CredentialsExpiry(long ttlNanos, long negativeTtlNanos)
+            implements Expiry<String, Optional<UserCredentials>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<UserCredentials> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<UserCredentials> value,
+                                      long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<UserCredentials> value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -2,6 +2,9 @@ package ru.practicum.user;
 
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -11,4 +14,13 @@ public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
 
     Optional<User> findByUsername(String username);
+
+    //email передается уже в нижнем регистре, запрос идет по индексу users_email_lower_uidx
+    @Query("select new ru.practicum.user.UserCredentials(u.id, u.username, u.email, u.password, u.role) " +
+            "from User u where lower(u.email) = :email")
+    Optional<UserCredentials> findCredentialsByEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("update User u set u.password = :password where u.id = :id")
+    int updatePassword(@Param("id") Long id, @Param("password") String password);
 }
@@ -1,7 +1,12 @@
 package ru.practicum.user;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.SQLException;
+import java.util.Optional;
 
 @Service
 @RequiredArgsConstructor
@@ -11,19 +16,46 @@ public class UserService {
 
     private final UserMapper mapper;
 
-    public boolean existsByEmail(String email) {
-        return userRepository.existsByEmail(email);
-    }
+    private final UserCredentialsCache credentialsCache;
+
+    private final CredentialsInvalidationService credentialsInvalidation;
+
+    private static final String UNIQUE_VIOLATION = "23505";
 
     public UserDto save(User user) {
-        return mapper.toUserDto(userRepository.save(user));
+        UserDto saved = mapper.toUserDto(userRepository.save(user));
+        credentialsInvalidation.invalidate(user.getEmail());
+        return saved;
     }
 
-    public User findByEmail(String email) {
-        return userRepository.findByEmail(email).orElseThrow(
-                () -> new RuntimeException("User not found")
-        );
+    //Один INSERT без предварительного existsByEmail: дубликат ловим по unique-ограничению на email.
+    //saveAndFlush, а не save: нарушение ограничения должно всплыть здесь, а не при коммите
+    public UserDto register(User user) {
+        //хранится в нижнем регистре: совпадает с ключом кэша и с уникальным индексом по lower(email)
+        user.setEmail(UserCredentialsCache.normalize(user.getEmail()));
+        try {
+            UserDto saved = mapper.toUserDto(userRepository.saveAndFlush(user));
+            //мог быть закэширован как неизвестный email
+            credentialsInvalidation.invalidate(user.getEmail());
+            return saved;
+        } catch (DataIntegrityViolationException e) {
+            if (e.getMostSpecificCause() instanceof SQLException sqlException
+                    && UNIQUE_VIOLATION.equals(sqlException.getSQLState())) {
+                throw new EmailAlreadyExistsException();
+            }
+            throw e;
+        }
     }
 
+    //транзакция только для чтения открывается в кэше и только при промахе; неизвестный email - пустой Optional
+    public Optional<UserCredentials> findCredentialsByEmail(String email) {
+        return credentialsCache.get(email);
+    }
+
+    @Transactional
+    public void updatePassword(UserCredentials user, String passwordHash) {
+        userRepository.updatePassword(user.id(), passwordHash);
+        credentialsInvalidation.invalidate(user.email());
+    }
 
 }
@@ -0,0 +1,4 @@
+--liquibase formatted sql
+
+--changeset auth-service:002-users-email-lower-index
+CREATE INDEX IF NOT EXISTS users_email_lower_idx ON users (lower(email));
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset auth-service:004-id-sequences
+--comment: id из последовательностей с шагом 50 (pooled optimizer Hibernate), identity-колонки остаются для ручных вставок
+CREATE SEQUENCE IF NOT EXISTS users_seq INCREMENT BY 50;
+SELECT setval('users_seq', COALESCE((SELECT MAX(id) FROM users), 0) + 50, false);
+
+CREATE SEQUENCE IF NOT EXISTS refresh_tokens_seq INCREMENT BY 50;
+SELECT setval('refresh_tokens_seq', COALESCE((SELECT MAX(id) FROM refresh_tokens), 0) + 50, false);
@@ -0,0 +1,9 @@
+--liquibase formatted sql
+
+--changeset auth-service:005-users-email-lower-unique
+--validCheckSum: 1:any
+--preconditions onFail:HALT
+--precondition-sql-check expectedResult:0 SELECT COUNT(*) FROM (SELECT lower(email) FROM users GROUP BY lower(email) HAVING COUNT(*) > 1) duplicates
+--comment: заменяет неуникальный users_email_lower_idx из 002 уникальным; дубликаты email по регистру останавливают миграцию и разрешаются вручную
+CREATE UNIQUE INDEX IF NOT EXISTS users_email_lower_uidx ON users (lower(email));
+DROP INDEX IF EXISTS users_email_lower_idx;
@@ -0,0 +1,6 @@
+--liquibase formatted sql
+
+--changeset auth-service:006-refresh-tokens-used-at
+ALTER TABLE refresh_tokens ADD COLUMN IF NOT EXISTS used_at TIMESTAMP WITH TIME ZONE;
+
+CREATE INDEX IF NOT EXISTS refresh_tokens_expires_at_idx ON refresh_tokens (expires_at);
@@ -0,0 +1,11 @@
+--liquibase formatted sql
+
+--changeset auth-service:007-drop-identity
+--comment: единственный источник id - последовательности из 004; identity, оставленная рядом, выдавала бы пересекающиеся значения при ручных вставках
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE refresh_tokens ALTER COLUMN id SET DEFAULT nextval('refresh_tokens_seq');
+ALTER SEQUENCE refresh_tokens_seq OWNED BY refresh_tokens.id;
@@ -0,0 +1,130 @@
+package ru.practicum.user;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Число JDBC-операторов на регистрацию в профиле prod: схема из Liquibase (ddl-auto: validate), id из users_seq
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "auth.credentials-cache.kafka.enabled=false"
+})
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("prod")
+@Testcontainers
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({UserService.class, UserCredentialsCache.class, CredentialsInvalidationService.class,
+        UserMapperImpl.class, UserServiceRegistrationTest.MetricsConfig.class})
+class UserServiceRegistrationTest {
+
+    private static final int ALLOCATION_SIZE = 50;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16.1");
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @MockBean
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private String prefix;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        prefix = UUID.randomUUID().toString();
+    }
+
+    //прежний путь: existsByEmail + INSERT ... RETURNING id - два оператора на регистрацию
+    @Test
+    void registrationIssuesOneInsertAndAmortizedSequenceCalls() {
+        int users = 2 * ALLOCATION_SIZE;
+
+        for (int i = 0; i < users; i++) {
+            userService.register(user(prefix + "-" + i + "@example.com"));
+        }
+
+        assertThat(statistics.getEntityInsertCount()).isEqualTo(users);
+        //INSERT на каждого и nextval не чаще одного раза на ALLOCATION_SIZE id (+1 на начало блока)
+        assertThat(statistics.getPrepareStatementCount())
+                .isBetween((long) users, (long) users + users / ALLOCATION_SIZE + 1);
+    }
+
+    @Test
+    void duplicateEmailIsRejectedByTheInsertItself() {
+        String email = prefix + "@example.com";
+        userService.register(user(email));
+        statistics.clear();
+
+        assertThatThrownBy(() -> userService.register(user(email)))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        //только неудачный INSERT (и, возможно, nextval), без отдельного поиска по email
+        assertThat(statistics.getPrepareStatementCount()).isLessThanOrEqualTo(2);
+    }
+
+    //email хранится в нижнем регистре: вариант с другим регистром - дубликат
+    @Test
+    void emailDifferingOnlyInCaseIsADuplicate() {
+        userService.register(user(prefix + "@Example.com"));
+
+        assertThatThrownBy(() -> userService.register(user(prefix.toUpperCase() + "@EXAMPLE.COM")))
+                .isInstanceOf(EmailAlreadyExistsException.class);
+        assertThat(userService.findCredentialsByEmail(prefix + "@example.com")).isPresent();
+    }
+
+    private static User user(String email) {
+        return User.builder()
+                .username("user")
+                .email(email)
+                .password("{bcrypt}hash")
+                .role(Roles.USER)
+                .build();
+    }
+
+    @TestConfiguration
+    static class MetricsConfig {
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+}
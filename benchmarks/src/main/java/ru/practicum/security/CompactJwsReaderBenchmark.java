@@ -0,0 +1,58 @@
+package ru.practicum.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+//JJWT parser против CompactJwsReader на одном и том же заголовке Authorization, полный и компактный токен
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompactJwsReaderBenchmark {
+
+    @Param({"FULL", "COMPACT"})
+    private TokenProfile profile;
+
+    private JwtParser parser;
+    private CompactJwsReader reader;
+    private String authHeader;
+
+    @Setup
+    public void setUp() {
+        parser = Jwts.parserBuilder()
+                .setSigningKey(JwtFixtures.SECRET)
+                .setAllowedClockSkewSeconds(60)
+                .requireIssuer(CommonJwtService.ISSUER)
+                .requireAudience(CommonJwtService.AUDIENCE)
+                .build();
+        reader = new CompactJwsReader(Decoders.BASE64.decode(JwtFixtures.SECRET));
+        authHeader = "Bearer " + JwtFixtures.token(profile);
+    }
+
+    @Benchmark
+    public Claims jjwtParser() {
+        return parser.parseClaimsJws(authHeader.substring(7)).getBody();
+    }
+
+    @Benchmark
+    public CompactJwsReader.Result compactReader() {
+        return reader.read(authHeader, 7);
+    }
+}
@@ -0,0 +1,57 @@
+package ru.practicum.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.user.InvalidCredentialsException;
+import ru.practicum.user.UserCredentials;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/*
+ * Логин с неизвестным email до BCrypt: прежний orElseThrow(RuntimeException) с перехватом
+ * против Optional и 401 без стека. Глубина стека как у обработчика запроса в Tomcat/Spring.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CredentialsRejectBenchmark {
+
+    private static final int REQUEST_STACK_DEPTH = 80;
+
+    private final Optional<UserCredentials> unknownUser = Optional.empty();
+
+    @Benchmark
+    public Object throwingLookup() {
+        return atDepth(REQUEST_STACK_DEPTH, () -> {
+            try {
+                return unknownUser.orElseThrow(() -> new RuntimeException("User not found"));
+            } catch (RuntimeException e) {
+                return e;
+            }
+        });
+    }
+
+    @Benchmark
+    public Object optionalLookup() {
+        return atDepth(REQUEST_STACK_DEPTH, () -> {
+            UserCredentials user = unknownUser.orElse(null);
+            return user == null ? new InvalidCredentialsException() : user;
+        });
+    }
+
+    private static Object atDepth(int depth, Supplier<Object> body) {
+        return depth == 0 ? body.get() : atDepth(depth - 1, body);
+    }
+}
@@ -0,0 +1,74 @@
+package ru.practicum.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+//Полный проход CommonJwtAuthenticationFilter на mock-запросах: валидный, битый и отсутствующий токен
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class JwtAuthenticationFilterBenchmark {
+
+    private static final FilterChain NOOP_CHAIN = (request, response) -> {
+    };
+
+    //public - запрос на публичный путь, фильтр пропускает его в shouldNotFilter
+    @Param({"valid", "invalid", "missing", "public"})
+    public String scenario;
+
+    @Param({"false", "true"})
+    public boolean cacheEnabled;
+
+    private CommonJwtAuthenticationFilter filter;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setUp() {
+        VerifiedTokenCache cache = cacheEnabled
+                ? new VerifiedTokenCache(10_000, Duration.ofMinutes(5))
+                : VerifiedTokenCache.disabled();
+        filter = new CommonJwtAuthenticationFilter(JwtFixtures.jwtService(), cache,
+                new PublicPathMatcher(JwtFixtures.PUBLIC_PATHS));
+
+        request = new MockHttpServletRequest("GET", "public".equals(scenario) ? "/auth/login" : "/auth/welcome");
+        String token = JwtFixtures.token();
+        switch (scenario) {
+            case "valid" -> request.addHeader("Authorization", "Bearer " + token);
+            case "invalid" -> request.addHeader("Authorization", "Bearer " + token.substring(0, token.length() - 2) + "xx");
+            default -> {
+            }
+        }
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public int doFilter() throws ServletException, IOException {
+        response.setCommitted(false);
+        response.reset();
+        filter.doFilter(request, response, NOOP_CHAIN);
+        SecurityContextHolder.clearContext();
+        return response.getStatus();
+    }
+}
@@ -0,0 +1,55 @@
+package ru.practicum.security;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import ru.practicum.config.JwtSigningProperties;
+import ru.practicum.user.Roles;
+
+import java.util.List;
+
+//Общие ключ и токен для бенчмарков, совпадают с application.yaml сервисов
+public final class JwtFixtures {
+
+    public static final String SECRET = "MySuperSecretKeyChangeInProduction12345WhichIsNotLessThen256BitOr64Simvols";
+    public static final long EXPIRATION = 900000;
+    public static final String USERNAME = "benchmark-user";
+    public static final String EMAIL = "benchmark@example.com";
+    public static final List<String> PUBLIC_PATHS = List.of(
+            "/auth/register", "/auth/login", "/auth/refresh", "/.well-known/jwks.json", "/actuator/health/**");
+
+    private JwtFixtures() {
+    }
+
+    //HS256: быстрый путь CompactJwsReader
+    public static JwtService jwtService() {
+        return jwtService("HS256");
+    }
+
+    public static JwtService jwtService(String algorithm) {
+        return jwtService(algorithm, TokenProfile.COMPACT);
+    }
+
+    //RS256 - с временным ключом (jwt.signing.ephemeral-key); метрики включены, как в сервисе
+    public static JwtService jwtService(String algorithm, TokenProfile profile) {
+        return jwtService(signingKeys(algorithm), EXPIRATION, profile);
+    }
+
+    //отрицательный expiration - уже просроченные токены, подписанные тем же ключом
+    public static JwtService jwtService(JwtSigningKeys signingKeys, long expiration, TokenProfile profile) {
+        return new JwtService(SECRET, expiration, signingKeys, profile, false, new SimpleMeterRegistry());
+    }
+
+    public static JwtSigningKeys signingKeys(String algorithm) {
+        JwtSigningProperties properties = new JwtSigningProperties();
+        properties.setAlgorithm(algorithm);
+        properties.setEphemeralKey(true);
+        return new JwtSigningKeys(properties);
+    }
+
+    public static String token() {
+        return jwtService().generateToken(USERNAME, EMAIL, Roles.USER);
+    }
+
+    public static String token(TokenProfile profile) {
+        return jwtService("HS256", profile).generateToken(USERNAME, EMAIL, Roles.USER);
+    }
+}
@@ -0,0 +1,67 @@
+package ru.practicum.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.user.Roles;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//Выпуск токена в auth-service и проверка/извлечение claims в CommonJwtService
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    @Param({"HS256", "RS256"})
+    private String algorithm;
+
+    @Param({"FULL", "COMPACT"})
+    private TokenProfile profile;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtService = JwtFixtures.jwtService(algorithm, profile);
+        token = jwtService.generateToken(JwtFixtures.USERNAME, JwtFixtures.EMAIL, Roles.USER);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(JwtFixtures.USERNAME, JwtFixtures.EMAIL, Roles.USER);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.validateToken(token);
+    }
+
+    @Benchmark
+    public Optional<VerifiedToken> verify() {
+        return jwtService.verify(token);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    @Benchmark
+    public String extractRole() {
+        return jwtService.extractRole(token);
+    }
+}
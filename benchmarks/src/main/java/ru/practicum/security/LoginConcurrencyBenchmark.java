@@ -0,0 +1,129 @@
+package ru.practicum.security;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import ru.practicum.user.Roles;
+import ru.practicum.user.UserCredentials;
+import ru.practicum.user.UserCredentialsCache;
+import ru.practicum.user.UserRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Пачка одновременных "логинов" без BCrypt (он на отдельном ограниченном пуле в любом режиме):
+ * промах UserCredentialsCache (настоящий кэш и TransactionTemplate, репозиторий ждет dbLatencyMillis)
+ * + выпуск и проверка токена.
+ * platform - пул как у Tomcat по умолчанию (200 потоков), virtual - поток на запрос.
+ * jdk.tracePinnedThreads печатает стек, если виртуальный поток закрепился на carrier
+ * (так выглядел бы запрос к БД внутри загрузчика LoadingCache). Время БД здесь - имитация;
+ * сравнение под нагрузкой с Postgres - на стенде docker-compose с VIRTUAL_THREADS_ENABLED=true/false.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgsAppend = "-Djdk.tracePinnedThreads=short")
+@State(Scope.Benchmark)
+public class LoginConcurrencyBenchmark {
+
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    public String threads;
+
+    @Param({"1000", "5000"})
+    public int concurrentRequests;
+
+    //время ответа БД на поиск пользователя
+    @Param({"5"})
+    public long dbLatencyMillis;
+
+    private ExecutorService executor;
+    private JwtService jwtService;
+    private UserCredentialsCache credentialsCache;
+    //каждый запрос - новый email, т.е. промах кэша и запрос к "БД"
+    private final AtomicLong emails = new AtomicLong();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        executor = "virtual".equals(threads)
+                ? Executors.newVirtualThreadPerTaskExecutor()
+                : Executors.newFixedThreadPool(PLATFORM_THREADS);
+        jwtService = JwtFixtures.jwtService();
+        credentialsCache = new UserCredentialsCache(slowRepository(dbLatencyMillis), new NoOpTransactionManager(),
+                10_000, Duration.ofMinutes(5), Duration.ofSeconds(30), new SimpleMeterRegistry());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public void loginBatch() throws InterruptedException {
+        CountDownLatch done = new CountDownLatch(concurrentRequests);
+        for (int i = 0; i < concurrentRequests; i++) {
+            executor.execute(() -> {
+                try {
+                    credentialsCache.get(emails.incrementAndGet() + "@example.com");
+                    String token = jwtService.generateToken(JwtFixtures.USERNAME, JwtFixtures.EMAIL, Roles.USER);
+                    jwtService.verify(token);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        done.await();
+    }
+
+    //findCredentialsByEmail ждет latencyMillis, как ответ БД; остальные методы бенчмарку не нужны
+    private static UserRepository slowRepository(long latencyMillis) {
+        return (UserRepository) Proxy.newProxyInstance(UserRepository.class.getClassLoader(),
+                new Class<?>[]{UserRepository.class}, (proxy, method, args) -> {
+                    if (!"findCredentialsByEmail".equals(method.getName())) {
+                        throw new UnsupportedOperationException(method.getName());
+                    }
+                    Thread.sleep(latencyMillis);
+                    return Optional.<UserCredentials>empty();
+                });
+    }
+
+    private static final class NoOpTransactionManager implements PlatformTransactionManager {
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+        }
+    }
+}
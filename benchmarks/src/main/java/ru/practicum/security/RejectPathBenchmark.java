@@ -0,0 +1,80 @@
+package ru.practicum.security;
+
+import io.jsonwebtoken.JwtException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.practicum.user.Roles;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Цена отказа: validate (результат, предпроверка без JJWT) против parse, где JJWT сообщает
+ * об отказе исключением со стеком. bad-signature проходит предпроверку и в RS256 доходит до JJWT в обоих вариантах.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectPathBenchmark {
+
+    //просрочен дальше допустимого расхождения часов (60 с)
+    private static final long EXPIRED = -TimeUnit.MINUTES.toMillis(5);
+
+    @Param({"HS256", "RS256"})
+    public String algorithm;
+
+    @Param({"expired", "bad-signature", "malformed"})
+    public String reason;
+
+    private JwtService jwtService;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        JwtSigningKeys signingKeys = JwtFixtures.signingKeys(algorithm);
+        jwtService = JwtFixtures.jwtService(signingKeys, JwtFixtures.EXPIRATION, TokenProfile.COMPACT);
+        String valid = jwtService.generateToken(JwtFixtures.USERNAME, JwtFixtures.EMAIL, Roles.USER);
+
+        token = switch (reason) {
+            case "expired" -> JwtFixtures.jwtService(signingKeys, EXPIRED, TokenProfile.COMPACT)
+                    .generateToken(JwtFixtures.USERNAME, JwtFixtures.EMAIL, Roles.USER);
+            case "bad-signature" -> tamperSignature(valid);
+            default -> "not-a.jwt";
+        };
+        if (jwtService.validate(token) instanceof VerificationResult.Valid) {
+            throw new IllegalStateException("Token for scenario " + reason + " must be rejected");
+        }
+    }
+
+    @Benchmark
+    public VerificationResult validate() {
+        return jwtService.validate(token);
+    }
+
+    @Benchmark
+    public Object parseWithException() {
+        try {
+            return jwtService.parse(token);
+        } catch (JwtException | IllegalArgumentException e) {
+            return e;
+        }
+    }
+
+    //символ в середине подписи: длина и base64url сохраняются, подпись - нет
+    private static String tamperSignature(String token) {
+        int i = token.lastIndexOf('.') + 10;
+        char replacement = token.charAt(i) == 'A' ? 'B' : 'A';
+        return token.substring(0, i) + replacement + token.substring(i + 1);
+    }
+}
@@ -2,6 +2,7 @@ package ru.practicum.user;
 
 import jakarta.validation.constraints.NotBlank;
 import lombok.Builder;
+import lombok.ToString;
 import lombok.Value;
 import lombok.extern.jackson.Jacksonized;
 
@@ -13,6 +14,8 @@ public class LoginRequest {
     @NotBlank
     String email;
 
+    //не попадает в toString и логи
+    @ToString.Exclude
     @NotBlank
     String password;
 }
@@ -0,0 +1,20 @@
+package ru.practicum.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+@Value
+@Jacksonized
+@Builder
+public class RefreshRequest {
+
+    //не попадает в toString и логи
+    @ToString.Exclude
+    @NotBlank
+    @JsonProperty("refresh_token")
+    String refreshToken;
+}
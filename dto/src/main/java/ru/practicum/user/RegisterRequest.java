@@ -3,6 +3,7 @@ package ru.practicum.user;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import lombok.Builder;
+import lombok.ToString;
 import lombok.Value;
 import lombok.extern.jackson.Jacksonized;
 
@@ -17,6 +18,8 @@ public class RegisterRequest {
     @Email
     String email;
 
+    //не попадает в toString и логи
+    @ToString.Exclude
     @NotBlank
     String password;
 }
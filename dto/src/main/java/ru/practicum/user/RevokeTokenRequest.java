@@ -0,0 +1,20 @@
+package ru.practicum.user;
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+import java.time.Instant;
+
+@Value
+@Jacksonized
+@Builder
+public class RevokeTokenRequest {
+
+    @NotBlank
+    String jti;
+
+    //exp отзываемого токена; если не указан - максимальное время жизни токена от текущего момента
+    Instant expiresAt;
+}
@@ -1,7 +1,28 @@
 package ru.practicum.user;
 
 public enum Roles {
-    USER,
-    ADMIN,
-    MODERATOR
+    USER(1),
+    ADMIN(2),
+    MODERATOR(3);
+
+    //код роли в компактном токене (claim "r"); не менять у существующих ролей
+    private final int code;
+
+    Roles(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    //null для неизвестного кода
+    public static Roles fromCode(long code) {
+        for (Roles role : values()) {
+            if (role.code == code) {
+                return role;
+            }
+        }
+        return null;
+    }
 }
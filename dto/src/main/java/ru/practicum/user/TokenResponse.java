@@ -0,0 +1,43 @@
+package ru.practicum.user;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Builder;
+import lombok.ToString;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+//Ответ /auth/login и /auth/refresh (поля в формате OAuth 2.0 token response)
+@Value
+@Jacksonized
+@Builder
+public class TokenResponse {
+
+    //не попадает в toString и логи
+    @ToString.Exclude
+    @JsonProperty("access_token")
+    String accessToken;
+
+    @ToString.Exclude
+    @JsonProperty("refresh_token")
+    String refreshToken;
+
+    @Builder.Default
+    @JsonProperty("token_type")
+    String tokenType = "Bearer";
+
+    //время жизни access-токена, секунды
+    @JsonProperty("expires_in")
+    long expiresIn;
+
+    UserInfo user;
+
+    @Value
+    @Jacksonized
+    @Builder
+    public static class UserInfo {
+        Long id;
+        String username;
+        String email;
+        Roles role;
+    }
+}
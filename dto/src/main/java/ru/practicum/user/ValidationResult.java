@@ -0,0 +1,18 @@
+package ru.practicum.user;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Value;
+import lombok.extern.jackson.Jacksonized;
+
+//Ответ /auth/validate; username и role только для действительного токена
+@Value
+@Jacksonized
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ValidationResult {
+    boolean valid;
+    String username;
+    String role;
+    String message;
+}
@@ -0,0 +1,28 @@
+package ru.practicum.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+
+//Базовое исключение сервисов: статус и готовое тело ответа, см. ProblemDetailsHandler
+public abstract class ApiException extends RuntimeException {
+
+    private final ProblemBody body;
+
+    protected ApiException(ProblemBody body, Throwable cause, boolean writableStackTrace) {
+        super(body.getDetail(), cause, false, writableStackTrace);
+        this.body = body;
+    }
+
+    public HttpStatusCode getStatusCode() {
+        return body.getStatus();
+    }
+
+    public ProblemBody getBody() {
+        return body;
+    }
+
+    //дополнительные заголовки ответа, например Retry-After
+    public HttpHeaders getHeaders() {
+        return HttpHeaders.EMPTY;
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.exception;
+
+/*
+ * Ожидаемый исход запроса (занятый email, неверный пароль, чужой refresh-токен):
+ * без стека и без записи в лог - при потоке таких запросов стоит не дороже обычного ответа.
+ */
+public class BusinessException extends ApiException {
+
+    public BusinessException(ProblemBody body) {
+        super(body, null, false);
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.exception;
+
+import org.springframework.http.HttpStatus;
+
+//409
+public class ConflictException extends BusinessException {
+
+    public ConflictException(String detail) {
+        this(ProblemBody.of(HttpStatus.CONFLICT, detail));
+    }
+
+    public ConflictException(ProblemBody body) {
+        super(body);
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/*
+ * Тело ответа application/problem+json (RFC 9457):
+ * {"type":"about:blank","title":"Conflict","status":409,"detail":"..."} (detail - необязательно).
+ * Кодируется в UTF-8 один раз; для постоянных ошибок - создать один раз и хранить в константе.
+ * Контроллер отдает готовый byte[], без Jackson и без изменяемого ProblemDetail.
+ */
+public final class ProblemBody {
+
+    private static final Map<Integer, ProblemBody> BY_STATUS = new ConcurrentHashMap<>();
+
+    private final HttpStatusCode status;
+    private final String detail;
+    private final byte[] json;
+
+    private ProblemBody(HttpStatusCode status, String detail, byte[] json) {
+        this.status = status;
+        this.detail = detail;
+        this.json = json;
+    }
+
+    //только статус, кэшируется
+    public static ProblemBody of(HttpStatusCode status) {
+        return BY_STATUS.computeIfAbsent(status.value(), code -> of(status, null));
+    }
+
+    public static ProblemBody of(HttpStatusCode status, String detail) {
+        HttpStatus resolved = HttpStatus.resolve(status.value());
+        StringBuilder json = new StringBuilder(96)
+                .append("{\"type\":\"about:blank\",\"title\":\"");
+        JsonStrings.escape(resolved != null ? resolved.getReasonPhrase() : "Error", json);
+        json.append("\",\"status\":").append(status.value());
+        if (detail != null) {
+            json.append(",\"detail\":\"");
+            JsonStrings.escape(detail, json);
+            json.append('"');
+        }
+        json.append('}');
+        return new ProblemBody(status, detail, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    //готовое problem+json тело, например ответ нижележащего сервиса
+    public static ProblemBody wrap(HttpStatusCode status, byte[] json) {
+        return new ProblemBody(status, null, json);
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity() {
+        return toResponseEntity(HttpHeaders.EMPTY);
+    }
+
+    public ResponseEntity<byte[]> toResponseEntity(HttpHeaders headers) {
+        return ResponseEntity.status(status)
+                .headers(headers)
+                .contentType(MediaType.APPLICATION_PROBLEM_JSON)
+                .body(json);
+    }
+
+    public HttpStatusCode getStatus() {
+        return status;
+    }
+
+    public String getDetail() {
+        return detail;
+    }
+}
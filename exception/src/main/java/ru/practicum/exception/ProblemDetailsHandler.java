@@ -0,0 +1,42 @@
+package ru.practicum.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ProblemDetail;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.ErrorResponse;
+import org.springframework.web.ErrorResponseException;
+import org.springframework.web.bind.MethodArgumentNotValidException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+/*
+ * Ошибки контроллеров всех сервисов в формате application/problem+json.
+ * Только типы из spring-web, поэтому один и тот же обработчик работает и в Spring MVC, и в WebFlux.
+ * Прочие исключения остаются стандартной обработке Spring (в том числе AccessDeniedException).
+ */
+@Slf4j
+@RestControllerAdvice
+public class ProblemDetailsHandler {
+
+    @ExceptionHandler(ApiException.class)
+    public ResponseEntity<byte[]> handleApiException(ApiException e) {
+        if (!(e instanceof BusinessException)) {
+            log.warn("Request failed with status {}", e.getStatusCode().value(), e);
+        }
+        return e.getBody().toResponseEntity(e.getHeaders());
+    }
+
+    //ResponseStatusException (и LoginRateLimitedException с Retry-After), ошибки валидации @Valid
+    @ExceptionHandler({ErrorResponseException.class, MethodArgumentNotValidException.class})
+    public ResponseEntity<byte[]> handleErrorResponse(Exception e) {
+        ErrorResponse error = (ErrorResponse) e;
+        if (error.getStatusCode().is5xxServerError()) {
+            log.warn("Request failed with status {}: {}", error.getStatusCode().value(), e.getMessage());
+        }
+        ProblemDetail detail = error.getBody();
+        ProblemBody body = detail.getDetail() == null
+                ? ProblemBody.of(error.getStatusCode())
+                : ProblemBody.of(error.getStatusCode(), detail.getDetail());
+        return body.toResponseEntity(error.getHeaders());
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.exception;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+
+//503 с Retry-After: перегрузка своя или переданная от вызванного сервиса
+public class ServiceUnavailableException extends BusinessException {
+
+    private final long retryAfterSeconds;
+
+    public ServiceUnavailableException(String detail, long retryAfterSeconds) {
+        this(ProblemBody.of(HttpStatus.SERVICE_UNAVAILABLE, detail), retryAfterSeconds);
+    }
+
+    public ServiceUnavailableException(ProblemBody body, long retryAfterSeconds) {
+        super(body);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
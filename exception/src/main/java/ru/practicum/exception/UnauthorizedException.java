@@ -0,0 +1,15 @@
+package ru.practicum.exception;
+
+import org.springframework.http.HttpStatus;
+
+//401
+public class UnauthorizedException extends BusinessException {
+
+    public UnauthorizedException(String detail) {
+        this(ProblemBody.of(HttpStatus.UNAUTHORIZED, detail));
+    }
+
+    public UnauthorizedException(ProblemBody body) {
+        super(body);
+    }
+}
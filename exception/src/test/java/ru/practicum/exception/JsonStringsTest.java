@@ -0,0 +1,37 @@
+package ru.practicum.exception;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class JsonStringsTest {
+
+    static Stream<Arguments> values() {
+        return Stream.of(
+                Arguments.of("plain text", "plain text"),
+                Arguments.of("say \"hi\"", "say \\\"hi\\\""),
+                Arguments.of("C:\\temp", "C:\\\\temp"),
+                Arguments.of("line1\nline2", "line1\\nline2"),
+                Arguments.of("a\tb\rc", "a\\tb\\rc"),
+                Arguments.of("a\bb\fc", "a\\bb\\fc"),
+                Arguments.of("\0\u001f", "\\u0000\\u001f"),
+                //не управляющие символы и не-ASCII остаются как есть, кодирование - UTF-8 при записи
+                Arguments.of("юникод / \u007f ✓", "юникод / \u007f ✓"),
+                Arguments.of("", "")
+        );
+    }
+
+    @ParameterizedTest
+    @MethodSource("values")
+    void escapesQuotesBackslashesAndControlCharacters(String value, String expected) {
+        StringBuilder out = new StringBuilder();
+
+        JsonStrings.escape(value, out);
+
+        assertThat(out).hasToString(expected);
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.exception;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ProblemBodyTest {
+
+    @Test
+    void statusOnlyBodyIsCachedPerStatus() {
+        ProblemBody body = ProblemBody.of(HttpStatus.CONFLICT);
+
+        assertThat(json(body)).isEqualTo("{\"type\":\"about:blank\",\"title\":\"Conflict\",\"status\":409}");
+        assertThat(ProblemBody.of(HttpStatus.CONFLICT)).isSameAs(body);
+    }
+
+    @Test
+    void detailIsEscaped() {
+        ProblemBody body = ProblemBody.of(HttpStatus.BAD_REQUEST, "Email \"a\\b\"\nalready used");
+
+        assertThat(json(body)).isEqualTo("{\"type\":\"about:blank\",\"title\":\"Bad Request\",\"status\":400,"
+                + "\"detail\":\"Email \\\"a\\\\b\\\"\\nalready used\"}");
+        assertThat(body.getDetail()).isEqualTo("Email \"a\\b\"\nalready used");
+    }
+
+    @Test
+    void nonAsciiDetailIsUtf8() {
+        ProblemBody body = ProblemBody.of(HttpStatus.CONFLICT, "Пользователь уже существует");
+
+        assertThat(json(body)).endsWith("\"detail\":\"Пользователь уже существует\"}");
+    }
+
+    @Test
+    void unknownStatusUsesGenericTitle() {
+        ProblemBody body = ProblemBody.of(HttpStatusCode.valueOf(499));
+
+        assertThat(json(body)).isEqualTo("{\"type\":\"about:blank\",\"title\":\"Error\",\"status\":499}");
+    }
+
+    @Test
+    void responseEntityCarriesStatusRetryAfterAndProblemJson() {
+        ServiceUnavailableException busy = new ServiceUnavailableException("busy", 3);
+
+        ResponseEntity<byte[]> response = busy.getBody().toResponseEntity(busy.getHeaders());
+
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(response.getHeaders().getContentType()).isEqualTo(MediaType.APPLICATION_PROBLEM_JSON);
+        assertThat(response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER)).isEqualTo("3");
+    }
+
+    private static String json(ProblemBody body) {
+        return new String(body.toResponseEntity().getBody(), StandardCharsets.UTF_8);
+    }
+}
@@ -3,67 +3,102 @@ package ru.practicum.clients;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
 import org.springframework.stereotype.Service;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
+import ru.practicum.config.AuthClientProperties;
 import ru.practicum.user.LoginRequest;
+import ru.practicum.user.RefreshRequest;
 import ru.practicum.user.RegisterRequest;
 import ru.practicum.user.ResponseMsg;
+import ru.practicum.user.TokenResponse;
+import ru.practicum.user.ValidationResult;
 
 
 @Service
 @Slf4j
 public class AuthWebClient extends BaseWebClient {
     private static final String API_PREFIX = "/auth";
+    private static final MediaType APPLICATION_SMILE = new MediaType("application", "x-jackson-smile");
 
-    public AuthWebClient(@Value("${auth-service.url}") String baseUrl) {
-        super(baseUrl, API_PREFIX);
+    //формат тел запросов и ответов между шлюзом и auth-service; клиентам шлюза ответ уходит в JSON
+    private final MediaType mediaType;
+
+    public AuthWebClient(@Value("${auth-service.url}") String baseUrl,
+                         WebClient.Builder webClientBuilder,
+                         ClientHttpConnector authServiceConnector,
+                         AuthClientProperties properties) {
+        super(webClientBuilder, authServiceConnector, properties.isFailFast(), baseUrl, API_PREFIX);
+        this.mediaType = properties.isSmile() ? APPLICATION_SMILE : MediaType.APPLICATION_JSON;
     }
 
+    //в лог не пишутся ни тела запросов, ни заголовок Authorization; итоговое событие пишет auth-service
     public Mono<ResponseMsg> register(@RequestBody RegisterRequest request) {
-        log.info("Register request {}", request);
         return webClient.post()
                 .uri("/register")
-                .contentType(MediaType.APPLICATION_JSON)
+                .contentType(mediaType)
                 .bodyValue(request)
+                .accept(mediaType)
                 .retrieve()
                 .bodyToMono(ResponseMsg.class)
-                .doOnSuccess(response -> {
-                    log.info("registered Successfully");
-                })
-                .doOnError(error -> log.error("Register failed"));
+                .doOnError(error -> logFailure("register", error));
     }
 
-    public Mono<ResponseMsg> login(@RequestBody LoginRequest request) {
-        log.info("Login request {}", request);
+    public Mono<TokenResponse> login(@RequestBody LoginRequest request) {
         return webClient.post()
                 .uri("/login")
-                .contentType(MediaType.APPLICATION_JSON)
+                .contentType(mediaType)
                 .bodyValue(request)
+                .accept(mediaType)
+                .retrieve()
+                .bodyToMono(TokenResponse.class)
+                .doOnError(error -> logFailure("login", error));
+    }
+
+    public Mono<TokenResponse> refresh(RefreshRequest request) {
+        return webClient.post()
+                .uri("/refresh")
+                .contentType(mediaType)
+                .bodyValue(request)
+                .accept(mediaType)
+                .retrieve()
+                .bodyToMono(TokenResponse.class)
+                .doOnError(error -> logFailure("refresh", error));
+    }
+
+    //refresh-токен необязателен: без него отзывается только access-токен
+    public Mono<ResponseMsg> logout(String authHeader, RefreshRequest request) {
+        WebClient.RequestBodySpec spec = webClient.post()
+                .uri("/logout")
+                .header("Authorization", authHeader)
+                .accept(mediaType);
+        WebClient.RequestHeadersSpec<?> withBody = request != null
+                ? spec.contentType(mediaType).bodyValue(request)
+                : spec;
+        return withBody
                 .retrieve()
                 .bodyToMono(ResponseMsg.class)
-                .doOnSuccess(response -> {
-                    log.info("logged in successfully");
-                })
-                .doOnError(response -> {
-                    log.info("Error due to log in");
-                });
+                .doOnError(error -> logFailure("logout", error));
     }
 
-    public Mono<ResponseMsg> validateToken(@RequestHeader("Authorization") String authHeader) {
-        log.info("Validate token as header: " + authHeader);
+    public Mono<ValidationResult> validateToken(@RequestHeader("Authorization") String authHeader) {
         return webClient.post()
                 .uri("/validate")
                 .header("Authorization", authHeader)
+                .accept(mediaType)
                 .retrieve()
-                .bodyToMono(ResponseMsg.class)
-                .doOnSuccess(response -> {
-                    log.info("Token validated successfully");
-                })
-                .doOnError(response -> {
-                    log.info("Token validation error");
-                });
+                .bodyToMono(ValidationResult.class)
+                .doOnError(error -> logFailure("validate", error));
+    }
+
+    //только тип ошибки: сообщение WebClientResponseException содержит URI и может содержать тело ответа
+    private static void logFailure(String operation, Throwable error) {
+        if (log.isDebugEnabled()) {
+            log.debug("auth-service {} call failed: {}", operation, error.getClass().getSimpleName());
+        }
     }
 
 }
@@ -1,13 +1,118 @@
 package ru.practicum.clients;
 
+import org.slf4j.MDC;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+import ru.practicum.exception.BusinessException;
+import ru.practicum.exception.ProblemBody;
+import ru.practicum.exception.ServiceUnavailableException;
+import ru.practicum.security.CorrelationId;
+import ru.practicum.security.LoginRateLimitedException;
+
+import java.util.Set;
 
 public class BaseWebClient {
+    //классы из reactor-pool, который reactor-netty поставляет только во внутреннем shaded-пакете
+    private static final Set<String> POOL_EXHAUSTED_ERRORS =
+            Set.of("PoolAcquirePendingLimitException", "PoolAcquireTimeoutException");
+
+    private static final ProblemBody POOL_EXHAUSTED =
+            ProblemBody.of(HttpStatus.SERVICE_UNAVAILABLE, "Upstream connection pool exhausted");
+
     protected final WebClient webClient;
 
-    public BaseWebClient(String baseUrl, String apiPrefix) {
-        this.webClient = WebClient.builder()
+    public BaseWebClient(WebClient.Builder webClientBuilder,
+                         ClientHttpConnector connector,
+                         boolean failFast,
+                         String baseUrl,
+                         String apiPrefix) {
+        //builder из контекста Spring Boot: время каждого вызова пишется в http.client.requests
+        WebClient.Builder builder = webClientBuilder
+                .clientConnector(connector)
                 .baseUrl(baseUrl + apiPrefix)
-                .build();
+                .defaultStatusHandler(BaseWebClient::passedThrough, BaseWebClient::upstreamError)
+                .filter(propagateRequestId());
+        if (failFast) {
+            builder.filter(rejectWhenPoolExhausted());
+        }
+        this.webClient = builder.build();
+    }
+
+    //requestId: из Reactor Context в реактивном режиме, из MDC потока запроса в servlet-режиме
+    private static ExchangeFilterFunction propagateRequestId() {
+        return (request, next) -> Mono.deferContextual(context -> {
+            String requestId = context.getOrDefault(CorrelationId.MDC_KEY, MDC.get(CorrelationId.MDC_KEY));
+            if (requestId == null) {
+                return next.exchange(request);
+            }
+            return next.exchange(ClientRequest.from(request)
+                    .header(CorrelationId.HEADER, requestId)
+                    .build());
+        });
+    }
+
+    private static boolean passedThrough(HttpStatusCode status) {
+        return status.is4xxClientError() || status.value() == HttpStatus.SERVICE_UNAVAILABLE.value();
+    }
+
+    //4xx и 503 от сервиса отдаются клиенту шлюза с тем же статусом (401, 409, 429 и 503 с Retry-After),
+    //а не как 500; problem+json тело сервиса передается как есть, исключение без стека
+    private static Mono<? extends Throwable> upstreamError(ClientResponse response) {
+        HttpStatusCode status = response.statusCode();
+        if (status.value() == HttpStatus.TOO_MANY_REQUESTS.value()) {
+            return response.releaseBody().thenReturn(new LoginRateLimitedException(retryAfterSeconds(response)));
+        }
+        Mono<ProblemBody> body = problemBody(response);
+        if (status.value() == HttpStatus.SERVICE_UNAVAILABLE.value()) {
+            long retryAfter = retryAfterSeconds(response);
+            return body.map(problem -> new ServiceUnavailableException(problem, retryAfter));
+        }
+        return body.map(BusinessException::new);
+    }
+
+    private static Mono<ProblemBody> problemBody(ClientResponse response) {
+        HttpStatusCode status = response.statusCode();
+        boolean problem = response.headers().contentType()
+                .filter(MediaType.APPLICATION_PROBLEM_JSON::isCompatibleWith)
+                .isPresent();
+        if (!problem) {
+            return response.releaseBody().thenReturn(ProblemBody.of(status));
+        }
+        return response.bodyToMono(byte[].class)
+                .map(body -> ProblemBody.wrap(status, body))
+                .defaultIfEmpty(ProblemBody.of(status));
+    }
+
+    private static long retryAfterSeconds(ClientResponse response) {
+        String retryAfter = response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        try {
+            return retryAfter == null ? 1 : Math.max(1, Long.parseLong(retryAfter));
+        } catch (NumberFormatException e) {
+            return 1;
+        }
+    }
+
+    //очередь ожидания соединения переполнена - отвечаем 503 сразу
+    private static ExchangeFilterFunction rejectWhenPoolExhausted() {
+        return (request, next) -> next.exchange(request)
+                .onErrorMap(BaseWebClient::isPoolExhausted, error -> new ServiceUnavailableException(POOL_EXHAUSTED, 1));
+    }
+
+    //по имени класса по цепочке причин: без импорта shaded-пакетов, которые могут смениться в любом релизе
+    private static boolean isPoolExhausted(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (POOL_EXHAUSTED_ERRORS.contains(cause.getClass().getSimpleName())) {
+                return true;
+            }
+        }
+        return false;
     }
 }
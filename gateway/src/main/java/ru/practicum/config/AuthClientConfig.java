@@ -0,0 +1,43 @@
+package ru.practicum.config;
+
+import io.netty.channel.ChannelOption;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ClientHttpConnector;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+@Configuration
+@EnableConfigurationProperties(AuthClientProperties.class)
+public class AuthClientConfig {
+
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider authServiceConnectionProvider(AuthClientProperties properties) {
+        //метрики пула уходят в reactor.netty.connection.provider.* на /actuator/metrics
+        return ConnectionProvider.builder("auth-service")
+                .maxConnections(properties.getMaxConnections())
+                .pendingAcquireMaxCount(properties.getPendingAcquireMaxCount())
+                .pendingAcquireTimeout(properties.getPendingAcquireTimeout())
+                .maxIdleTime(properties.getMaxIdleTime())
+                .maxLifeTime(properties.getMaxLifeTime())
+                .evictInBackground(properties.getEvictInBackground())
+                .metrics(properties.isMetrics())
+                .build();
+    }
+
+    @Bean
+    public ClientHttpConnector authServiceConnector(ConnectionProvider authServiceConnectionProvider,
+                                                    AuthClientProperties properties) {
+        HttpClient httpClient = HttpClient.create(authServiceConnectionProvider)
+                .protocol(properties.getProtocols().toArray(HttpProtocol[]::new))
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) properties.getConnectTimeout().toMillis())
+                .option(ChannelOption.SO_KEEPALIVE, properties.isKeepAlive())
+                .keepAlive(properties.isKeepAlive())
+                .responseTimeout(properties.getResponseTimeout());
+
+        return new ReactorClientHttpConnector(httpClient);
+    }
+}
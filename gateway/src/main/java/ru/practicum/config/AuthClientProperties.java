@@ -0,0 +1,46 @@
+package ru.practicum.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import reactor.netty.http.HttpProtocol;
+
+import java.time.Duration;
+import java.util.List;
+
+//Настройки пула соединений и таймаутов WebClient до auth-service (auth-service.client.*)
+@ConfigurationProperties(prefix = "auth-service.client")
+@Getter
+@Setter
+public class AuthClientProperties {
+
+    private int maxConnections = 200;
+
+    //-1 - очередь ожидания без ограничений
+    private int pendingAcquireMaxCount = 400;
+
+    private Duration pendingAcquireTimeout = Duration.ofSeconds(2);
+
+    private Duration maxIdleTime = Duration.ofSeconds(30);
+
+    private Duration maxLifeTime = Duration.ofMinutes(5);
+
+    private Duration evictInBackground = Duration.ofSeconds(30);
+
+    private Duration connectTimeout = Duration.ofSeconds(2);
+
+    private Duration responseTimeout = Duration.ofSeconds(5);
+
+    private boolean keepAlive = true;
+
+    //HTTP11 или H2C, HTTP11 для HTTP/2 без TLS
+    private List<HttpProtocol> protocols = List.of(HttpProtocol.HTTP11);
+
+    //переполненный пул сразу отвечает 503, а не 500
+    private boolean failFast = true;
+
+    private boolean metrics = true;
+
+    //Smile (бинарный JSON) вместо JSON на участке шлюз - auth-service; DTO и Jackson-аннотации те же
+    private boolean smile = false;
+}
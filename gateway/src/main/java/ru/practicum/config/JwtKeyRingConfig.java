@@ -0,0 +1,28 @@
+package ru.practicum.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.security.JwksKeyRingRefresher;
+import ru.practicum.security.JwtKeyRing;
+
+import java.net.URI;
+import java.time.Duration;
+
+//Открытые ключи auth-service: загружаются из JWKS в фоне, запросы их не ждут
+@Configuration
+public class JwtKeyRingConfig {
+
+    @Bean
+    public JwtKeyRing jwtKeyRing() {
+        return new JwtKeyRing();
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "close")
+    public JwksKeyRingRefresher jwksKeyRingRefresher(JwtKeyRing jwtKeyRing,
+                                                     @Value("${jwt.jwks.uri}") URI jwksUri,
+                                                     @Value("${jwt.jwks.refresh-interval:5m}") Duration refreshInterval,
+                                                     @Value("${jwt.jwks.min-refresh-interval:30s}") Duration minRefreshInterval) {
+        return new JwksKeyRingRefresher(jwtKeyRing, jwksUri, refreshInterval, minRefreshInterval);
+    }
+}
@@ -0,0 +1,80 @@
+package ru.practicum.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import ru.practicum.security.CommonJwtAuthenticationWebFilter;
+import ru.practicum.security.CorrelationIdWebFilter;
+import ru.practicum.security.JwtService;
+import ru.practicum.security.LoginRateLimitWebFilter;
+import ru.practicum.security.LoginRateLimiter;
+import ru.practicum.security.PublicPathMatcher;
+import ru.practicum.security.PublicPathsProperties;
+import ru.practicum.security.RevokedTokenStore;
+import ru.practicum.security.SecurityErrorResponse;
+import ru.practicum.security.VerifiedTokenCache;
+
+//Реактивный режим шлюза (spring.main.web-application-type=reactive): Netty и SecurityWebFilterChain
+@Configuration
+@EnableWebFluxSecurity
+@EnableConfigurationProperties(PublicPathsProperties.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveSecurityConfig {
+
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                         JwtService jwtService,
+                                                         VerifiedTokenCache verifiedTokenCache,
+                                                         RevokedTokenStore revokedTokenStore,
+                                                         PublicPathsProperties publicPaths) {
+        CommonJwtAuthenticationWebFilter jwtFilter = new CommonJwtAuthenticationWebFilter(
+                jwtService, verifiedTokenCache, revokedTokenStore, new PublicPathMatcher(publicPaths.getPublicPaths()));
+
+        return http
+                .csrf(csrf -> csrf.disable())
+                .httpBasic(basic -> basic.disable())
+                .formLogin(form -> form.disable())
+                .logout(logout -> logout.disable())
+                //без сессий: контекст живет только в рамках запроса
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .addFilterAt(jwtFilter, SecurityWebFiltersOrder.AUTHENTICATION)
+                .authorizeExchange(exchange -> exchange
+                        .pathMatchers(publicPaths.toArray()).permitAll()
+                        //metrics и loggers (POST меняет уровни логов); health - в public-paths
+                        .pathMatchers("/actuator/**").hasRole("ADMIN")
+                        .anyExchange().authenticated()
+                )
+                .exceptionHandling(exceptions -> exceptions
+                        .authenticationEntryPoint((exchange, authExcep) -> SecurityErrorResponse.write(
+                                exchange.getResponse(), 401, "Unauthorized", authExcep.getMessage()))
+                        .accessDeniedHandler((exchange, accessDeniedException) -> SecurityErrorResponse.write(
+                                exchange.getResponse(), 403, "Forbidden", accessDeniedException.getMessage()))
+                )
+                .build();
+    }
+
+    //в отличие от фильтра JWT - бин: WebFlux ставит его в общую цепочку раньше SecurityWebFilterChain
+    @Bean
+    public CorrelationIdWebFilter correlationIdWebFilter() {
+        return new CorrelationIdWebFilter();
+    }
+
+    //попытки входа по IP отсекаются до разбора тела и вызова auth-service
+    @Bean
+    public LoginRateLimitWebFilter loginRateLimitWebFilter(LoginRateLimiter loginRateLimiter) {
+        return new LoginRateLimitWebFilter(loginRateLimiter);
+    }
+
+    //Tomcat тоже на classpath (servlet-режим), поэтому Netty выбирается явно
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+}
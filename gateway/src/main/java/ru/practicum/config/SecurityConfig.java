@@ -1,21 +1,34 @@
 package ru.practicum.config;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import ru.practicum.security.CorrelationIdFilter;
 import ru.practicum.security.JwtAuthentificationFilter;
+import ru.practicum.security.LoginRateLimitFilter;
+import ru.practicum.security.LoginRateLimiter;
+import ru.practicum.security.PublicPathsProperties;
+import ru.practicum.security.SecurityErrorResponse;
 
+//Servlet-режим шлюза (Tomcat); реактивный - ReactiveSecurityConfig
 @Configuration
 @EnableWebSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@EnableConfigurationProperties(PublicPathsProperties.class)
 @RequiredArgsConstructor
 public class SecurityConfig {
 
     private final JwtAuthentificationFilter jwtAuthentificationFilter;
+    private final PublicPathsProperties publicPaths;
 
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
@@ -24,34 +37,43 @@ public class SecurityConfig {
                 .csrf(csrf -> csrf.disable())
                 .addFilterBefore(jwtAuthentificationFilter, UsernamePasswordAuthenticationFilter.class)
                 .authorizeHttpRequests(auth -> auth
-                        .requestMatchers("/auth/register").permitAll()
-                        .requestMatchers("/auth/login").permitAll()
-                        .requestMatchers("/actuator/**").permitAll()
+                        //тот же список, что пропускает JwtAuthentificationFilter
+                        .requestMatchers(publicPaths.toArray()).permitAll()
                         .requestMatchers("admin/**").permitAll()
+                        //metrics и loggers (POST меняет уровни логов); health - в public-paths
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         .anyRequest().authenticated()
                 )
                 .exceptionHandling(exeps -> exeps
                         .authenticationEntryPoint((request,
                                                    response,
-                                                   authExcep) -> {
-                            response.setStatus(401);
-                            response.setContentType("application/json");
-                            response.getWriter().write("{\"error\": \"Unauthorized\", \"message\": \"" +
-                                    authExcep.getMessage() + "\"}"
-                            );
-                        })
+                                                   authExcep) -> SecurityErrorResponse.write(
+                                response, 401, "Unauthorized", authExcep.getMessage()))
                         .accessDeniedHandler((requests,
                                               response,
-                                              accessDeniedException) -> {
-                            response.setStatus(403);
-                            response.setContentType("application/json");
-                            response.getWriter().write("{\"error\": \"Forbidden\", \"message\": \"" +
-                                    accessDeniedException.getMessage() + "\"}");
-                        })
+                                              accessDeniedException) -> SecurityErrorResponse.write(
+                                response, 403, "Forbidden", accessDeniedException.getMessage()))
                 )
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
         return http.build();
     }
+
+    //requestId в MDC раньше цепочки Spring Security
+    @Bean
+    public FilterRegistrationBean<CorrelationIdFilter> correlationIdFilter() {
+        FilterRegistrationBean<CorrelationIdFilter> registration = new FilterRegistrationBean<>(new CorrelationIdFilter());
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    //попытки входа по IP отсекаются до разбора тела и вызова auth-service
+    @Bean
+    public FilterRegistrationBean<LoginRateLimitFilter> loginRateLimitFilter(LoginRateLimiter loginRateLimiter) {
+        FilterRegistrationBean<LoginRateLimitFilter> registration =
+                new FilterRegistrationBean<>(new LoginRateLimitFilter(loginRateLimiter));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 1);
+        return registration;
+    }
 }
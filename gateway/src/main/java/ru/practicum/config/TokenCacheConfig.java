@@ -0,0 +1,29 @@
+package ru.practicum.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.practicum.security.VerifiedTokenCache;
+
+import java.time.Duration;
+
+@Configuration
+public class TokenCacheConfig {
+
+    @Bean
+    public VerifiedTokenCache verifiedTokenCache(@Value("${jwt.cache.enabled:true}") boolean enabled,
+                                                 @Value("${jwt.cache.max-size:100000}") long maxSize,
+                                                 @Value("${jwt.cache.ttl:5m}") Duration ttl,
+                                                 MeterRegistry meterRegistry) {
+        if (!enabled) {
+            return VerifiedTokenCache.disabled();
+        }
+
+        VerifiedTokenCache cache = new VerifiedTokenCache(maxSize, ttl);
+        //cache.gets{result=hit|miss}, cache.evictions и т.д. на /actuator/metrics
+        CaffeineCacheMetrics.monitor(meterRegistry, cache.getNativeCache(), "jwt.verified-tokens");
+        return cache;
+    }
+}
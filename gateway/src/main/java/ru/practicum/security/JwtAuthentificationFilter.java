@@ -2,14 +2,17 @@ package ru.practicum.security;
 
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.stereotype.Component;
 
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @Slf4j
 public class JwtAuthentificationFilter extends CommonJwtAuthenticationFilter {
 
 
-    public JwtAuthentificationFilter(JwtService jwtService) {
-        super(jwtService);
+    public JwtAuthentificationFilter(JwtService jwtService, VerifiedTokenCache verifiedTokenCache,
+                                     RevokedTokenStore revokedTokenStore, PublicPathsProperties publicPaths) {
+        super(jwtService, verifiedTokenCache, revokedTokenStore, new PublicPathMatcher(publicPaths.getPublicPaths()));
     }
 }
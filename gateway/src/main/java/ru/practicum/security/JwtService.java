@@ -1,5 +1,6 @@
 package ru.practicum.security;
 
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
@@ -8,8 +9,11 @@ import org.springframework.stereotype.Service;
 @Slf4j
 public class JwtService extends CommonJwtService {
 
-    public JwtService(@Value("${jwt.secret}") String secretKey,
-                      @Value("${jwt.expiration}") long expiration) {
-        super(secretKey, expiration);
+    //jwt.secret пустой - токены HS256 не принимаются
+    public JwtService(@Value("${jwt.secret:}") String secretKey,
+                      @Value("${jwt.expiration}") long expiration,
+                      JwtKeyRing jwtKeyRing,
+                      MeterRegistry meterRegistry) {
+        super(secretKey, expiration, jwtKeyRing, new JwtMetrics(meterRegistry));
     }
 }
@@ -4,12 +4,19 @@ package ru.practicum.user;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import reactor.core.publisher.Mono;
 import ru.practicum.clients.AuthWebClient;
+import ru.practicum.security.JwtService;
+import ru.practicum.security.LoginRateLimitedException;
+import ru.practicum.security.LoginRateLimiter;
+import ru.practicum.security.TokenValidationResponses;
+import ru.practicum.security.VerifiedToken;
+import ru.practicum.security.VerifiedTokenCache;
 
 @RestController
 @RequestMapping("/auth")
@@ -18,7 +25,16 @@ import ru.practicum.clients.AuthWebClient;
 @Validated
 public class UserController {
 
+    private static final int BEARER_PREFIX_LENGTH = "Bearer ".length();
+
     final AuthWebClient authWebClient;
+    final JwtService jwtService;
+    final VerifiedTokenCache verifiedTokenCache;
+    final LoginRateLimiter loginRateLimiter;
+
+    //повторная проверка в auth-service (отзыв уже проверяется фильтром по локальному хранилищу)
+    @Value("${auth-service.validate.remote-check:false}")
+    boolean remoteCheck;
 
     @PostMapping("/register")
     public Mono<ResponseMsg> register(@RequestBody @Valid RegisterRequest request) {
@@ -26,14 +42,47 @@ public class UserController {
     }
 
 
+    //лимит по IP уже проверен фильтром, здесь - по email до вызова auth-service
     @PostMapping("/login")
-    public Mono<ResponseMsg> login(@RequestBody LoginRequest request) {
+    public Mono<TokenResponse> login(@RequestBody LoginRequest request) {
+        long retryAfter = loginRateLimiter.checkEmail(request.getEmail());
+        if (retryAfter > 0) {
+            return Mono.error(new LoginRateLimitedException(retryAfter));
+        }
         return authWebClient.login(request);
     }
 
+    @PostMapping("/refresh")
+    public Mono<TokenResponse> refresh(@RequestBody @Valid RefreshRequest request) {
+        return authWebClient.refresh(request);
+    }
+
+    //отзыв рассылается auth-service всем шлюзам, локальное хранилище обновится из Kafka
+    @PostMapping("/logout")
+    public Mono<ResponseMsg> logout(@RequestHeader("Authorization") String authHeader,
+                                    @RequestBody(required = false) RefreshRequest request) {
+        return authWebClient.logout(authHeader, request);
+    }
+
+    //Подпись и claims проверяются локально тем же ключом, без похода в auth-service
     @PostMapping("/validate")
-    public Mono<ResponseMsg> validateToken(@RequestHeader("Authorization") String authHeader) {
-        return authWebClient.validateToken(authHeader);
+    public Mono<ValidationResult> validateToken(@RequestHeader("Authorization") String authHeader) {
+        if (!authHeader.startsWith("Bearer")) {
+            return Mono.just(TokenValidationResponses.invalidHeader());
+        }
+
+        VerifiedToken verified = authHeader.length() > BEARER_PREFIX_LENGTH
+                ? verifiedTokenCache.get(authHeader, BEARER_PREFIX_LENGTH, jwtService::verify).orElse(null)
+                : null;
+        if (verified == null) {
+            return Mono.just(TokenValidationResponses.invalidToken());
+        }
+
+        if (remoteCheck) {
+            return authWebClient.validateToken(authHeader);
+        }
+
+        return Mono.just(TokenValidationResponses.valid(verified));
     }
 
 
@@ -41,7 +90,7 @@ public class UserController {
     @GetMapping("/welcome")
     @PreAuthorize("hasRole('USER')")
     public ResponseMsg welcomeUser(Authentication authentication) {
-        log.info("get request to /welcome");
+        log.debug("get request to /welcome");
         String username = authentication.getName();
 
         return ResponseMsg.builder()
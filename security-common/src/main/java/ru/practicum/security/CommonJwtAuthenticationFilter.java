@@ -4,22 +4,44 @@ import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.stereotype.Service;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
 import java.util.Collections;
 
+@Slf4j
 public class CommonJwtAuthenticationFilter extends OncePerRequestFilter {
 
+    private static final int BEARER_PREFIX_LENGTH = "Bearer ".length();
+
+    static final SecurityErrorResponse NO_TOKEN = SecurityErrorResponse.of(401, "Not token provided");
+    static final SecurityErrorResponse INVALID_TOKEN = SecurityErrorResponse.of(401, "Invalid token");
+    static final SecurityErrorResponse TOKEN_REVOKED = SecurityErrorResponse.of(401, "Token revoked");
+
     private final CommonJwtService jwtService;
+    private final VerifiedTokenCache tokenCache;
+    private final RevokedTokenStore revokedTokens;
+    private final PublicPathMatcher publicPaths;
+
+    public CommonJwtAuthenticationFilter(CommonJwtService jwtService, PublicPathMatcher publicPaths) {
+        this(jwtService, VerifiedTokenCache.disabled(), publicPaths);
+    }
+
+    public CommonJwtAuthenticationFilter(CommonJwtService jwtService, VerifiedTokenCache tokenCache,
+                                         PublicPathMatcher publicPaths) {
+        this(jwtService, tokenCache, RevokedTokenStore.empty(), publicPaths);
+    }
 
-    public CommonJwtAuthenticationFilter(CommonJwtService jwtService) {
+    public CommonJwtAuthenticationFilter(CommonJwtService jwtService, VerifiedTokenCache tokenCache,
+                                         RevokedTokenStore revokedTokens, PublicPathMatcher publicPaths) {
         this.jwtService = jwtService;
+        this.tokenCache = tokenCache;
+        this.revokedTokens = revokedTokens;
+        this.publicPaths = publicPaths;
     }
 
     @Override
@@ -32,64 +54,48 @@ public class CommonJwtAuthenticationFilter extends OncePerRequestFilter {
 
         String authHeader = request.getHeader("Authorization");
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
-            sendError(response, 401, "Not token provided");
+            jwtService.getMetrics().failure(JwtMetrics.Failure.MISSING);
+            NO_TOKEN.write(response);
             return;
         }
 
-        String token = authHeader.substring(7);
-
-        //Валидируем токен
-        if (!jwtService.validateToken(token)) {
-            sendError(response, 401, "Invalid token");
+        //Валидируем токен прямо в заголовке (с 7 символа), повторные запросы берутся из кэша
+        VerifiedToken verified = tokenCache.get(authHeader, BEARER_PREFIX_LENGTH, jwtService::verify).orElse(null);
+        if (verified == null) {
+            INVALID_TOKEN.write(response);
             return;
         }
 
-        //Создаем аутентификацию
-        try {
-            String username = jwtService.extractUsername(token);
-            String role = jwtService.extractRole(token);
-
-            SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + role);
-
-            UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                    username, null, Collections.singleton(authority)
-            );
-
-            SecurityContextHolder.getContext().setAuthentication(authToken);
-        } catch (Exception e) {
-            sendError(response, 401, "Token process error: " + e.getMessage());
+        //отзыв проверяется и для токенов из кэша
+        if (revokedTokens.isRevoked(verified)) {
+            jwtService.getMetrics().failure(JwtMetrics.Failure.REVOKED);
+            TOKEN_REVOKED.write(response);
             return;
         }
 
+        SecurityContextHolder.getContext().setAuthentication(authentication(verified));
+
         filterChain.doFilter(request, response);
     }
 
+    //Создаем аутентификацию (общая с CommonJwtAuthenticationWebFilter)
+    static UsernamePasswordAuthenticationToken authentication(VerifiedToken verified) {
+        SimpleGrantedAuthority authority = new SimpleGrantedAuthority("ROLE_" + verified.getRole());
+
+        return new UsernamePasswordAuthenticationToken(
+                verified.getSubject(), null, Collections.singleton(authority)
+        );
+    }
+
+    //публичные пути из security.public-paths, сравнение без contextPath
     @Override
     protected boolean shouldNotFilter(HttpServletRequest request) {
-        String servletPath = request.getServletPath();
         String requestURI = request.getRequestURI();
-        String contextPath = request.getContextPath();
-
-        System.out.println("=== Filter Debug ===");
-        System.out.println("ServletPath: " + servletPath);
-        System.out.println("RequestURI: " + requestURI);
-        System.out.println("ContextPath: " + contextPath);
-        System.out.println("Method: " + request.getMethod());
-        System.out.println("=== End Debug ===");
+        boolean publicPath = publicPaths.matches(requestURI, request.getContextPath().length());
 
-        return requestURI.contains("/auth/register") ||
-                requestURI.contains("/auth/login") ||
-                requestURI.contains("/actuator/");
-
-    }
-
-    private void sendError(HttpServletResponse response, int status, String message) throws IOException {
-        response.setStatus(status);
-        response.setContentType("application/json");
-        response.setCharacterEncoding("UTF-8");
-        response.getWriter().write(String.format(
-                "{\"error\": \"%s\", \"status\": %d, \"timestamp\": \"%s\"}",
-                message, status, java.time.Instant.now()
-        ));
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} public={}", request.getMethod(), requestURI, publicPath);
+        }
+        return publicPath;
     }
 }
@@ -0,0 +1,67 @@
+package ru.practicum.security;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/*
+ * Реактивный вариант CommonJwtAuthenticationFilter для SecurityWebFilterChain.
+ * Проверка токена - только вычисления (быстрый HS256, ключи RS256 из JwtKeyRing без ожидания),
+ * поэтому выполняется прямо на event loop Netty.
+ * Не объявлять бином: WebFilter-бины WebFlux добавляет в общую цепочку, и фильтр сработал бы дважды.
+ */
+@Slf4j
+public class CommonJwtAuthenticationWebFilter implements WebFilter {
+
+    private static final int BEARER_PREFIX_LENGTH = "Bearer ".length();
+
+    private final CommonJwtService jwtService;
+    private final VerifiedTokenCache tokenCache;
+    private final RevokedTokenStore revokedTokens;
+    private final PublicPathMatcher publicPaths;
+
+    public CommonJwtAuthenticationWebFilter(CommonJwtService jwtService, VerifiedTokenCache tokenCache,
+                                            RevokedTokenStore revokedTokens, PublicPathMatcher publicPaths) {
+        this.jwtService = jwtService;
+        this.tokenCache = tokenCache;
+        this.revokedTokens = revokedTokens;
+        this.publicPaths = publicPaths;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String path = request.getPath().pathWithinApplication().value();
+        boolean publicPath = publicPaths.matches(path, 0);
+        if (log.isDebugEnabled()) {
+            log.debug("{} {} public={}", request.getMethod(), path, publicPath);
+        }
+        if (publicPath) {
+            return chain.filter(exchange);
+        }
+
+        String authHeader = request.getHeaders().getFirst(HttpHeaders.AUTHORIZATION);
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            jwtService.getMetrics().failure(JwtMetrics.Failure.MISSING);
+            return CommonJwtAuthenticationFilter.NO_TOKEN.write(exchange.getResponse());
+        }
+
+        VerifiedToken verified = tokenCache.get(authHeader, BEARER_PREFIX_LENGTH, jwtService::verify).orElse(null);
+        if (verified == null) {
+            return CommonJwtAuthenticationFilter.INVALID_TOKEN.write(exchange.getResponse());
+        }
+        if (revokedTokens.isRevoked(verified)) {
+            jwtService.getMetrics().failure(JwtMetrics.Failure.REVOKED);
+            return CommonJwtAuthenticationFilter.TOKEN_REVOKED.write(exchange.getResponse());
+        }
+
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(
+                        CommonJwtAuthenticationFilter.authentication(verified)));
+    }
+}
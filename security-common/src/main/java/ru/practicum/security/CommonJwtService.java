@@ -1,128 +1,288 @@
 package ru.practicum.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.InvalidClaimException;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.PrematureJwtException;
 import io.jsonwebtoken.SignatureAlgorithm;
-import ru.practicum.user.Roles;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.SecurityException;
+import ru.practicum.security.JwtMetrics.Failure;
 
+import javax.crypto.spec.SecretKeySpec;
+import java.security.Key;
+import java.security.PublicKey;
+import java.time.Instant;
 import java.util.Date;
-import java.util.UUID;
+import java.util.Optional;
 
 public class CommonJwtService {
 
+    public static final String ISSUER = "auth-service";
+    public static final String AUDIENCE = "gateway";
+
     protected JwtParser parser;
+    //null, если HS256 отключен
+    protected CompactJwsReader reader;
     protected long expiration;
     protected String secretKey;
+    protected JwtKeyRing keyRing;
+    protected JwtMetrics metrics;
+
+    private final Key hmacKey;
 
+    //только HS256 с общим секретом
     public CommonJwtService(String secretKey, long expiration) {
+        this(secretKey, expiration, new JwtKeyRing());
+    }
+
+    /*
+     * RS256 по kid из keyRing; HS256 с secretKey принимается только если секрет задан
+     * (переходный период, пока не истекут ранее выпущенные токены).
+     */
+    public CommonJwtService(String secretKey, long expiration, JwtKeyRing keyRing) {
+        this(secretKey, expiration, keyRing, JwtMetrics.disabled());
+    }
+
+    public CommonJwtService(String secretKey, long expiration, JwtKeyRing keyRing, JwtMetrics metrics) {
         this.secretKey = secretKey;
         this.expiration = expiration;
+        this.keyRing = keyRing;
+        this.metrics = metrics;
+
+        boolean hmacEnabled = secretKey != null && !secretKey.isBlank();
+        byte[] hmacKeyBytes = hmacEnabled ? Decoders.BASE64.decode(secretKey) : null;
+        this.hmacKey = hmacEnabled ? new SecretKeySpec(hmacKeyBytes, SignatureAlgorithm.HS256.getJcaName()) : null;
+        this.reader = hmacEnabled ? new CompactJwsReader(hmacKeyBytes) : null;
+
         this.parser = Jwts.parserBuilder()
-                .setSigningKey(secretKey)
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        return resolveKey(header);
+                    }
+                })
                 .setAllowedClockSkewSeconds(60)
-                .requireIssuer("auth-service")
-                .requireAudience("gateway")
+                .requireIssuer(ISSUER)
+                .requireAudience(AUDIENCE)
                 .setClock(() -> new Date())
                 .build();
     }
 
-    public boolean validateToken(String token) {
-        try {
-            if (!isTokenActive(token)) {
-                throw new Exception("Token not Active");
+    //ключ выбирается по alg и kid из заголовка; поиск в keyRing не блокируется
+    private Key resolveKey(JwsHeader<?> header) {
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(header.getAlgorithm());
+        if (algorithm.isHmac()) {
+            if (hmacKey == null) {
+                throw new UnsupportedJwtException("HMAC-signed tokens are not accepted");
             }
-            if (!isAudienceValid(token)) {
-                throw new Exception("Token Audience Invalid");
+            return hmacKey;
+        }
+
+        String kid = header.getKeyId();
+        PublicKey key = kid == null ? null : keyRing.get(kid);
+        if (key == null) {
+            throw new UnsupportedJwtException("Unknown signing key id: " + kid);
+        }
+        return key;
+    }
+
+    public boolean validateToken(String token) {
+        return verify(token).isPresent();
+    }
+
+    //Разбор и проверка подписи выполняются один раз, дальше работаем с готовыми claims
+    public Optional<VerifiedToken> verify(String token) {
+        return verify(token, 0);
+    }
+
+    //token начинается с offset, например verify(authHeader, 7) без substring
+    public Optional<VerifiedToken> verify(String source, int offset) {
+        return validate(source, offset).token();
+    }
+
+    public VerificationResult validate(String token) {
+        return validate(token, 0);
+    }
+
+    //Отказ - это результат, а не исключение; исключения JJWT остаются только для токенов, прошедших предпроверку
+    public VerificationResult validate(String source, int offset) {
+        long start = metrics.start();
+        if (reader != null) {
+            //быстрый путь только для HS256, остальные алгоритмы уходят в парсер
+            CompactJwsReader.Result result = reader.read(source, offset);
+            switch (result.verdict()) {
+                case VALID:
+                    return accept(result.token(), start, true);
+                case INVALID:
+                    metrics.recordCompact(start, false);
+                    return reject(Failure.SIGNATURE);
+                default:
+                    break;
             }
-            if (isTokenExpired(token)) {
-                throw new Exception("Token Expired");
+        }
+        return validateWithParser(source, offset, start);
+    }
+
+    private VerificationResult validateWithParser(String source, int offset, long start) {
+        Failure precheck = precheck(source, offset);
+        if (precheck != null) {
+            metrics.recordParser(start, false);
+            return reject(precheck);
+        }
+
+        VerifiedToken verified;
+        try {
+            verified = parse(offset == 0 ? source : source.substring(offset));
+        } catch (JwtException | IllegalArgumentException e) {
+            metrics.recordParser(start, false);
+            return reject(failureOf(e));
+        }
+        return accept(verified, start, false);
+    }
+
+    //битый формат и истекший exp отклоняются без подписи и без исключения JJWT;
+    //для годного токена - один проход по символам и декодирование payload в переиспользуемый буфер
+    private Failure precheck(String source, int offset) {
+        if (!CompactJwsReader.isWellFormed(source, offset)) {
+            return Failure.MALFORMED;
+        }
+        long expiration = CompactJwsReader.peekExpiration(source, offset);
+        if (expiration != Long.MIN_VALUE && expiration < Instant.now().getEpochSecond()) {
+            return Failure.EXPIRED;
+        }
+        return null;
+    }
+
+    private VerificationResult accept(VerifiedToken token, long start, boolean compact) {
+        Failure failure = check(token);
+        if (compact) {
+            metrics.recordCompact(start, failure == null);
+        } else {
+            metrics.recordParser(start, failure == null);
+        }
+        return failure == null ? new VerificationResult.Valid(token) : reject(failure);
+    }
+
+    private VerificationResult reject(Failure failure) {
+        metrics.failure(failure);
+        return VerificationResult.Rejected.of(failure);
+    }
+
+    //причина отказа JJWT для jwt.validation.failures
+    private static Failure failureOf(Exception e) {
+        if (e instanceof ExpiredJwtException) {
+            return Failure.EXPIRED;
+        }
+        if (e instanceof PrematureJwtException) {
+            return Failure.NOT_BEFORE;
+        }
+        if (e instanceof InvalidClaimException invalidClaim) {
+            String claim = invalidClaim.getClaimName();
+            if (Claims.ISSUER.equals(claim)) {
+                return Failure.ISSUER;
             }
-            if (!isIssuerValid(token)) {
-                throw new Exception("Token Issuer Invalid");
+            if (Claims.AUDIENCE.equals(claim)) {
+                return Failure.AUDIENCE;
             }
-            return true;
-        } catch (Exception e) {
-            return false;
         }
+        if (e instanceof SecurityException) {
+            return Failure.SIGNATURE;
+        }
+        if (e instanceof UnsupportedJwtException) {
+            return Failure.UNSUPPORTED;
+        }
+        return Failure.MALFORMED;
+    }
+
+    public JwtMetrics getMetrics() {
+        return metrics;
+    }
+
+    public VerifiedToken parse(String token) {
+        return VerifiedToken.of(parser.parseClaimsJws(token).getBody());
     }
 
+    //null - токен действителен
+    protected Failure check(VerifiedToken token) {
+        Instant now = Instant.now();
+        if (!token.isActiveAt(now)) {
+            return Failure.NOT_BEFORE;
+        }
+        if (!AUDIENCE.equals(token.getAudience())) {
+            return Failure.AUDIENCE;
+        }
+        if (token.isExpiredAt(now)) {
+            return Failure.EXPIRED;
+        }
+        if (!ISSUER.equals(token.getIssuer())) {
+            return Failure.ISSUER;
+        }
+        return null;
+    }
+
+    //методы извлечения
     public String extractUsername(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getSubject();
+        return parse(token).getSubject();
     }
 
     public String extractEmail(String token) {
-        Claims claims = parser.parseClaimsJws(token)
-                .getBody();
-        return claims.get("email", String.class);
+        return parse(token).getEmail();
     }
 
-    //методы извлечения
-    @SuppressWarnings("unchecked")
     public String extractRole(String token) {
-        Claims claims = parser.parseClaimsJws(token)
-                .getBody();
-        return claims.get("role", String.class);
+        return parse(token).getRole();
     }
 
     public String extractIssuer(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getIssuer();
+        return parse(token).getIssuer();
     }
 
     public String extractAudience(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getAudience();
+        return parse(token).getAudience();
     }
 
     public Date extractIssuedAt(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getIssuedAt();
+        return toDate(parse(token).getIssuedAt());
     }
 
     public Date extractExpiration(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
+        return toDate(parse(token).getExpiration());
     }
 
     public Date extractNotBefore(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getNotBefore();
+        return toDate(parse(token).getNotBefore());
     }
 
     public String extractJwtId(String token) {
-        return parser.parseClaimsJws(token)
-                .getBody()
-                .getId();
+        return parse(token).getJwtId();
     }
 
     //методы проверки
     public boolean isTokenExpired(String token) {
-        Date expiration = parser.parseClaimsJws(token)
-                .getBody()
-                .getExpiration();
-        return expiration.before(new Date());
+        return parse(token).isExpiredAt(Instant.now());
     }
 
     public boolean isAudienceValid(String token) {
-        return "gateway".equals(extractAudience(token));
+        return AUDIENCE.equals(extractAudience(token));
     }
 
     public boolean isIssuerValid(String token) {
-        return "auth-service".equals(extractIssuer(token));
+        return ISSUER.equals(extractIssuer(token));
     }
 
     public boolean isTokenActive(String token) {
-        Date notBefore = extractNotBefore(token);
-        Date now = new Date();
-        return notBefore == null || !now.before(notBefore);
+        return parse(token).isActiveAt(Instant.now());
+    }
+
+    private static Date toDate(Instant instant) {
+        return instant == null ? null : Date.from(instant);
     }
 
 }
@@ -0,0 +1,732 @@
+package ru.practicum.security;
+
+import ru.practicum.user.Roles;
+
+import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Base64;
+
+/*
+ * Быстрый разбор compact JWS (HS256) прямо по смещениям в строке заголовка Authorization.
+ * Проверяет HMAC через переиспользуемый Mac и читает только нужные фильтру claims.
+ * Всё, что выходит за рамки формата, который выпускает auth-service, возвращается как UNDECIDED,
+ * и тогда токен проверяет JJWT - так набор принимаемых токенов совпадает с parser.
+ */
+public final class CompactJwsReader {
+
+    public enum Verdict {
+        VALID,
+        INVALID,
+        UNDECIDED
+    }
+
+    public record Result(Verdict verdict, VerifiedToken token) {
+        static final Result INVALID = new Result(Verdict.INVALID, null);
+        static final Result UNDECIDED = new Result(Verdict.UNDECIDED, null);
+    }
+
+    private static final String HMAC_SHA256 = "HmacSHA256";
+    private static final int MIN_KEY_LENGTH = 32;
+    private static final int SIGNATURE_LENGTH = 32;
+    private static final int ENCODED_SIGNATURE_LENGTH = 43;
+    private static final int MAX_DEPTH = 16;
+    private static final int MAX_EPOCH_DIGITS = 12;
+
+    //варианты заголовка, которые считаются HS256 без разбора JSON
+    private static final String[] HS256_HEADERS = {
+            encodeHeader("{\"alg\":\"HS256\"}"),
+            encodeHeader("{\"typ\":\"JWT\",\"alg\":\"HS256\"}"),
+            encodeHeader("{\"alg\":\"HS256\",\"typ\":\"JWT\"}")
+    };
+
+    private static final byte[] DECODE = new byte[128];
+    //payload для peekExpiration; длиннее - решает парсер
+    private static final ScratchPool<byte[]> PEEK_BUFFERS = new ScratchPool<>(() -> new byte[512]);
+
+    static {
+        Arrays.fill(DECODE, (byte) -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE[alphabet.charAt(i)] = (byte) i;
+        }
+    }
+
+    private final byte[] keyBytes;
+    private final ScratchPool<Buffers> buffers;
+
+    public CompactJwsReader(byte[] keyBytes) {
+        this.keyBytes = keyBytes.clone();
+        this.buffers = keyBytes.length >= MIN_KEY_LENGTH ? new ScratchPool<>(this::newBuffers) : null;
+    }
+
+    public Result read(String source, int offset) {
+        if (buffers == null) {
+            return Result.UNDECIDED;
+        }
+
+        Buffers buf = buffers.acquire();
+        try {
+            return read(source, offset, buf);
+        } finally {
+            buffers.release(buf);
+        }
+    }
+
+    private Result read(String source, int offset, Buffers buf) {
+        int end = source.length();
+        int payloadStart = matchHeader(source, offset);
+        if (payloadStart < 0) {
+            return Result.UNDECIDED;
+        }
+
+        int signatureStart = source.indexOf('.', payloadStart) + 1;
+        if (signatureStart == 0 || end - signatureStart != ENCODED_SIGNATURE_LENGTH) {
+            return Result.UNDECIDED;
+        }
+
+        int payloadEnd = signatureStart - 1;
+        if (payloadEnd == payloadStart) {
+            return Result.UNDECIDED;
+        }
+
+        //signing input = header.payload в ASCII, заголовок уже сверен с константой
+        int signingLength = payloadEnd - offset;
+        byte[] signingInput = buf.signingInput(signingLength);
+        for (int i = 0; i < signingLength; i++) {
+            char c = source.charAt(offset + i);
+            if (c >= 128 || (DECODE[c] < 0 && c != '.')) {
+                return Result.UNDECIDED;
+            }
+            signingInput[i] = (byte) c;
+        }
+
+        if (decode(source, signatureStart, end, buf.provided) != SIGNATURE_LENGTH) {
+            return Result.UNDECIDED;
+        }
+
+        Mac mac = buf.mac;
+        mac.update(signingInput, 0, signingLength);
+        try {
+            mac.doFinal(buf.expected, 0);
+        } catch (ShortBufferException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!constantTimeEquals(buf.expected, buf.provided)) {
+            return Result.INVALID;
+        }
+
+        byte[] payload = buf.payload((payloadEnd - payloadStart) * 3 / 4);
+        int decoded = decode(source, payloadStart, payloadEnd, payload);
+        if (decoded < 0) {
+            return Result.UNDECIDED;
+        }
+
+        VerifiedToken token = new ClaimsReader(payload, decoded).read();
+        return token == null ? Result.UNDECIDED : new Result(Verdict.VALID, token);
+    }
+
+    /*
+     * exp без проверки подписи - только чтобы отклонить просроченный токен до JJWT,
+     * который сообщает об отказе исключением. Принимать токен по этому значению нельзя.
+     * Payload декодируется в переиспользуемый буфер, строки и VerifiedToken не создаются;
+     * прочие claims (nbf, iss, aud) проверяются уже после парсера.
+     * Long.MIN_VALUE - exp не найден, не целое число, повторяется или JSON не разобран: решает парсер.
+     */
+    public static long peekExpiration(String source, int offset) {
+        int payloadStart = source.indexOf('.', offset) + 1;
+        if (payloadStart == 0) {
+            return Long.MIN_VALUE;
+        }
+        int payloadEnd = source.indexOf('.', payloadStart);
+        if (payloadEnd <= payloadStart) {
+            return Long.MIN_VALUE;
+        }
+
+        byte[] payload = PEEK_BUFFERS.acquire();
+        try {
+            int decoded = decode(source, payloadStart, payloadEnd, payload);
+            return decoded < 0 ? Long.MIN_VALUE : new ClaimsReader(payload, decoded).readExpiration();
+        } finally {
+            PEEK_BUFFERS.release(payload);
+        }
+    }
+
+    //header.payload.signature из символов base64url (допускается паддинг '='), header и payload не пустые
+    public static boolean isWellFormed(String source, int offset) {
+        int dots = 0;
+        int segmentStart = offset;
+        for (int i = offset; i < source.length(); i++) {
+            char c = source.charAt(i);
+            if (c == '.') {
+                if (i == segmentStart || ++dots > 2) {
+                    return false;
+                }
+                segmentStart = i + 1;
+            } else if (c != '=' && (c >= 128 || DECODE[c] < 0)) {
+                return false;
+            }
+        }
+        return dots == 2;
+    }
+
+    private static int matchHeader(String source, int offset) {
+        for (String header : HS256_HEADERS) {
+            int dot = offset + header.length();
+            if (source.length() > dot
+                    && source.charAt(dot) == '.'
+                    && source.regionMatches(offset, header, 0, header.length())) {
+                return dot + 1;
+            }
+        }
+        return -1;
+    }
+
+    //base64url без паддинга, лишние биты в последнем символе не допускаются
+    private static int decode(String source, int from, int to, byte[] out) {
+        int length = to - from;
+        if (length % 4 == 1) {
+            return -1;
+        }
+        int outLength = length * 3 / 4;
+        if (outLength > out.length) {
+            return -1;
+        }
+
+        int bits = 0;
+        int bitCount = 0;
+        int pos = 0;
+        for (int i = from; i < to; i++) {
+            char c = source.charAt(i);
+            int value = c < 128 ? DECODE[c] : -1;
+            if (value < 0) {
+                return -1;
+            }
+            bits = (bits << 6) | value;
+            bitCount += 6;
+            if (bitCount >= 8) {
+                bitCount -= 8;
+                out[pos++] = (byte) (bits >> bitCount);
+                bits &= (1 << bitCount) - 1;
+            }
+        }
+        return bits == 0 ? pos : -1;
+    }
+
+    private static boolean constantTimeEquals(byte[] a, byte[] b) {
+        int diff = 0;
+        for (int i = 0; i < SIGNATURE_LENGTH; i++) {
+            diff |= a[i] ^ b[i];
+        }
+        return diff == 0;
+    }
+
+    private static String encodeHeader(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private Buffers newBuffers() {
+        try {
+            Mac mac = Mac.getInstance(HMAC_SHA256);
+            mac.init(new SecretKeySpec(keyBytes, HMAC_SHA256));
+            return new Buffers(mac);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 is not available", e);
+        }
+    }
+
+    private static final class Buffers {
+        private final Mac mac;
+        private final byte[] expected = new byte[SIGNATURE_LENGTH];
+        private final byte[] provided = new byte[SIGNATURE_LENGTH];
+        private byte[] signingInput = new byte[512];
+        private byte[] payload = new byte[384];
+
+        private Buffers(Mac mac) {
+            this.mac = mac;
+        }
+
+        private byte[] signingInput(int length) {
+            if (signingInput.length < length) {
+                signingInput = new byte[length];
+            }
+            return signingInput;
+        }
+
+        private byte[] payload(int length) {
+            if (payload.length < length) {
+                payload = new byte[length];
+            }
+            return payload;
+        }
+    }
+
+    /*
+     * Потоковый разбор JSON объекта claims. Возвращает null, если встретилось что-то,
+     * что JJWT мог бы интерпретировать иначе: экранирование в нужных строках, дубли ключей,
+     * нецелые даты, неожиданные типы.
+     */
+    private static final class ClaimsReader {
+
+        private static final byte[] SUB = ascii("sub");
+        private static final byte[] JTI = ascii("jti");
+        private static final byte[] ROLE = ascii("role");
+        private static final byte[] EMAIL = ascii("email");
+        private static final byte[] COMPACT_ROLE = ascii(VerifiedToken.COMPACT_ROLE);
+        private static final byte[] COMPACT_EMAIL = ascii(VerifiedToken.COMPACT_EMAIL);
+        private static final byte[] ISS = ascii("iss");
+        private static final byte[] AUD = ascii("aud");
+        private static final byte[] IAT = ascii("iat");
+        private static final byte[] EXP = ascii("exp");
+        private static final byte[] NBF = ascii("nbf");
+        private static final byte[] ISSUER = ascii(CommonJwtService.ISSUER);
+        private static final byte[] AUDIENCE = ascii(CommonJwtService.AUDIENCE);
+
+        private final byte[] in;
+        private final int end;
+        private int pos;
+
+        private String subject;
+        private String jwtId;
+        private String role;
+        private String issuer;
+        private String audience;
+        private long issuedAt = Long.MIN_VALUE;
+        private long expiration = Long.MIN_VALUE;
+        private long notBefore = Long.MIN_VALUE;
+        private String email;
+
+        private ClaimsReader(byte[] in, int end) {
+            this.in = in;
+            this.end = end;
+        }
+
+        private VerifiedToken read() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return null;
+            }
+            skipWhitespace();
+            if (!consume('}')) {
+                do {
+                    skipWhitespace();
+                    if (!readMember()) {
+                        return null;
+                    }
+                    skipWhitespace();
+                } while (consume(','));
+                if (!consume('}')) {
+                    return null;
+                }
+            }
+            skipWhitespace();
+            if (pos != end) {
+                return null;
+            }
+
+            return VerifiedToken.builder()
+                    .subject(subject)
+                    .jwtId(jwtId)
+                    .role(role)
+                    .email(email)
+                    .issuer(issuer)
+                    .audience(audience)
+                    .issuedAt(toInstant(issuedAt))
+                    .expiration(toInstant(expiration))
+                    .notBefore(toInstant(notBefore))
+                    .build();
+        }
+
+        //только ключи верхнего уровня: "exp" во вложенном объекте или в строке не учитывается;
+        //дубль exp или экранированный ключ (мог бы оказаться тем же exp) - Long.MIN_VALUE
+        private long readExpiration() {
+            skipWhitespace();
+            if (!consume('{')) {
+                return Long.MIN_VALUE;
+            }
+            skipWhitespace();
+            if (consume('}')) {
+                return Long.MIN_VALUE;
+            }
+            long exp = Long.MIN_VALUE;
+            do {
+                skipWhitespace();
+                if (!consume('"')) {
+                    return Long.MIN_VALUE;
+                }
+                int keyStart = pos;
+                int keyEnd = skipStringBody();
+                if (keyEnd < 0 || contains(keyStart, keyEnd, (byte) '\\')) {
+                    return Long.MIN_VALUE;
+                }
+                skipWhitespace();
+                if (!consume(':')) {
+                    return Long.MIN_VALUE;
+                }
+                skipWhitespace();
+                if (keyIs(keyStart, keyEnd, EXP)) {
+                    if (exp != Long.MIN_VALUE) {
+                        return Long.MIN_VALUE;
+                    }
+                    exp = readLong();
+                    if (exp == Long.MIN_VALUE) {
+                        return Long.MIN_VALUE;
+                    }
+                } else if (!skipValue(0)) {
+                    return Long.MIN_VALUE;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            if (!consume('}')) {
+                return Long.MIN_VALUE;
+            }
+            skipWhitespace();
+            return pos == end ? exp : Long.MIN_VALUE;
+        }
+
+        private boolean readMember() {
+            if (!consume('"')) {
+                return false;
+            }
+            int keyStart = pos;
+            int keyEnd = skipStringBody();
+            if (keyEnd < 0 || contains(keyStart, keyEnd, (byte) '\\')) {
+                return false;
+            }
+            skipWhitespace();
+            if (!consume(':')) {
+                return false;
+            }
+            skipWhitespace();
+
+            if (keyIs(keyStart, keyEnd, SUB)) {
+                if (subject != null) {
+                    return false;
+                }
+                subject = readString();
+                return subject != null;
+            }
+            if (keyIs(keyStart, keyEnd, JTI)) {
+                //нужен для проверки отзыва
+                if (jwtId != null) {
+                    return false;
+                }
+                jwtId = readString();
+                return jwtId != null;
+            }
+            if (keyIs(keyStart, keyEnd, ROLE)) {
+                if (role != null) {
+                    return false;
+                }
+                role = readString();
+                return role != null;
+            }
+            if (keyIs(keyStart, keyEnd, COMPACT_ROLE)) {
+                //компактный формат: код роли; неизвестный код и оба поля сразу оставляем JJWT
+                if (role != null) {
+                    return false;
+                }
+                long code = readLong();
+                Roles compactRole = code == Long.MIN_VALUE ? null : Roles.fromCode(code);
+                role = compactRole == null ? null : compactRole.name();
+                return role != null;
+            }
+            if (keyIs(keyStart, keyEnd, ISS)) {
+                if (issuer != null) {
+                    return false;
+                }
+                issuer = readConstant(ISSUER, CommonJwtService.ISSUER);
+                return issuer != null;
+            }
+            if (keyIs(keyStart, keyEnd, AUD)) {
+                if (audience != null) {
+                    return false;
+                }
+                audience = readConstant(AUDIENCE, CommonJwtService.AUDIENCE);
+                return audience != null;
+            }
+            if (keyIs(keyStart, keyEnd, EXP)) {
+                if (expiration != Long.MIN_VALUE) {
+                    return false;
+                }
+                expiration = readLong();
+                return expiration != Long.MIN_VALUE;
+            }
+            if (keyIs(keyStart, keyEnd, NBF)) {
+                if (notBefore != Long.MIN_VALUE) {
+                    return false;
+                }
+                notBefore = readLong();
+                return notBefore != Long.MIN_VALUE;
+            }
+            if (keyIs(keyStart, keyEnd, IAT)) {
+                if (issuedAt != Long.MIN_VALUE) {
+                    return false;
+                }
+                issuedAt = readLong();
+                return issuedAt != Long.MIN_VALUE;
+            }
+            if (keyIs(keyStart, keyEnd, EMAIL) || keyIs(keyStart, keyEnd, COMPACT_EMAIL)) {
+                //тот же результат, что VerifiedToken.of на пути JJWT; оба поля сразу оставляем JJWT
+                if (email != null) {
+                    return false;
+                }
+                email = readString();
+                return email != null;
+            }
+            return skipValue(0);
+        }
+
+        private boolean contains(int start, int to, byte value) {
+            for (int i = start; i < to; i++) {
+                if (in[i] == value) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean keyIs(int start, int keyEnd, byte[] name) {
+            if (keyEnd - start != name.length) {
+                return false;
+            }
+            for (int i = 0; i < name.length; i++) {
+                if (in[start + i] != name[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private String readString() {
+            if (!consume('"')) {
+                return null;
+            }
+            int start = pos;
+            boolean ascii = true;
+            while (pos < end) {
+                byte b = in[pos];
+                if (b == '"') {
+                    int length = pos++ - start;
+                    return ascii ? new String(in, start, length, StandardCharsets.US_ASCII) : decodeUtf8(start, length);
+                }
+                if (b == '\\' || (b >= 0 && b < 0x20)) {
+                    return null;
+                }
+                ascii &= b >= 0;
+                pos++;
+            }
+            return null;
+        }
+
+        //некорректный UTF-8 Jackson не примет, поэтому и здесь без замены символов
+        private String decodeUtf8(int start, int length) {
+            try {
+                return StandardCharsets.UTF_8.newDecoder()
+                        .decode(ByteBuffer.wrap(in, start, length))
+                        .toString();
+            } catch (CharacterCodingException e) {
+                return null;
+            }
+        }
+
+        //iss/aud сравниваются на месте, чужое значение отдаем как есть, чтобы проверка его отклонила
+        private String readConstant(byte[] expected, String value) {
+            int start = pos + 1;
+            int close = start + expected.length;
+            if (close < end
+                    && in[pos] == '"'
+                    && in[close] == '"'
+                    && keyIs(start, close, expected)) {
+                pos = close + 1;
+                return value;
+            }
+            return readString();
+        }
+
+        //даты - только целые секунды разумной величины, остальное оставляем JJWT
+        private long readLong() {
+            boolean negative = consume('-');
+            int digitsStart = pos;
+            long value = 0;
+            while (pos < end && in[pos] >= '0' && in[pos] <= '9') {
+                value = value * 10 + (in[pos++] - '0');
+            }
+            int digits = pos - digitsStart;
+            if (digits == 0 || digits > MAX_EPOCH_DIGITS || (digits > 1 && in[digitsStart] == '0')) {
+                return Long.MIN_VALUE;
+            }
+            if (pos < end && (in[pos] == '.' || in[pos] == 'e' || in[pos] == 'E')) {
+                return Long.MIN_VALUE;
+            }
+            return negative ? -value : value;
+        }
+
+        private boolean skipValue(int depth) {
+            if (pos >= end || depth > MAX_DEPTH) {
+                return false;
+            }
+            byte b = in[pos];
+            switch (b) {
+                case '"':
+                    pos++;
+                    return skipStringBody() >= 0;
+                case '{':
+                    return skipContainer('}', true, depth);
+                case '[':
+                    return skipContainer(']', false, depth);
+                case 't':
+                    return skipLiteral("true");
+                case 'f':
+                    return skipLiteral("false");
+                case 'n':
+                    return skipLiteral("null");
+                default:
+                    return skipNumber();
+            }
+        }
+
+        private boolean skipContainer(char close, boolean object, int depth) {
+            pos++;
+            skipWhitespace();
+            if (consume(close)) {
+                return true;
+            }
+            do {
+                skipWhitespace();
+                if (object) {
+                    if (!consume('"') || skipStringBody() < 0) {
+                        return false;
+                    }
+                    skipWhitespace();
+                    if (!consume(':')) {
+                        return false;
+                    }
+                    skipWhitespace();
+                }
+                if (!skipValue(depth + 1)) {
+                    return false;
+                }
+                skipWhitespace();
+            } while (consume(','));
+            return consume(close);
+        }
+
+        //возвращает позицию закрывающей кавычки или -1; для ключей с экранированием тоже работает
+        private int skipStringBody() {
+            while (pos < end) {
+                byte b = in[pos];
+                if (b == '"') {
+                    return pos++;
+                }
+                if (b >= 0 && b < 0x20) {
+                    return -1;
+                }
+                if (b == '\\') {
+                    if (pos + 1 >= end) {
+                        return -1;
+                    }
+                    byte escaped = in[pos + 1];
+                    if (escaped == 'u') {
+                        if (pos + 6 > end) {
+                            return -1;
+                        }
+                        for (int i = pos + 2; i < pos + 6; i++) {
+                            if (Character.digit(in[i], 16) < 0) {
+                                return -1;
+                            }
+                        }
+                        pos += 6;
+                        continue;
+                    }
+                    if ("\"\\/bfnrt".indexOf(escaped) < 0) {
+                        return -1;
+                    }
+                    pos += 2;
+                    continue;
+                }
+                pos++;
+            }
+            return -1;
+        }
+
+        private boolean skipLiteral(String literal) {
+            if (end - pos < literal.length()) {
+                return false;
+            }
+            for (int i = 0; i < literal.length(); i++) {
+                if (in[pos + i] != literal.charAt(i)) {
+                    return false;
+                }
+            }
+            pos += literal.length();
+            return true;
+        }
+
+        //-?(0|[1-9][0-9]*)(.[0-9]+)?([eE][+-]?[0-9]+)?
+        private boolean skipNumber() {
+            consume('-');
+            if (consume('0')) {
+                if (pos < end && isDigit(in[pos])) {
+                    return false;
+                }
+            } else if (skipDigits() == 0) {
+                return false;
+            }
+            if (consume('.') && skipDigits() == 0) {
+                return false;
+            }
+            if (consume('e') || consume('E')) {
+                if (!consume('+')) {
+                    consume('-');
+                }
+                return skipDigits() > 0;
+            }
+            return true;
+        }
+
+        private int skipDigits() {
+            int start = pos;
+            while (pos < end && isDigit(in[pos])) {
+                pos++;
+            }
+            return pos - start;
+        }
+
+        private static boolean isDigit(byte b) {
+            return b >= '0' && b <= '9';
+        }
+
+        private void skipWhitespace() {
+            while (pos < end) {
+                byte b = in[pos];
+                if (b != ' ' && b != '\t' && b != '\n' && b != '\r') {
+                    return;
+                }
+                pos++;
+            }
+        }
+
+        private boolean consume(char c) {
+            if (pos < end && in[pos] == c) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private static Instant toInstant(long epochSeconds) {
+            return epochSeconds == Long.MIN_VALUE ? null : Instant.ofEpochSecond(epochSeconds);
+        }
+
+        private static byte[] ascii(String value) {
+            return value.getBytes(StandardCharsets.US_ASCII);
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package ru.practicum.security;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/*
+ * Сквозной id запроса: приходит в X-Request-Id или создается на входе, кладется в MDC (requestId),
+ * возвращается в ответе и передается в auth-service при вызовах из шлюза.
+ */
+public final class CorrelationId {
+
+    public static final String HEADER = "X-Request-Id";
+    public static final String MDC_KEY = "requestId";
+
+    private static final int MAX_LENGTH = 64;
+
+    private CorrelationId() {
+    }
+
+    //чужой id принимается, только если он короткий и без спецсимволов: иначе им можно подделать строки лога
+    public static String resolve(String incoming) {
+        return isValid(incoming) ? incoming : generate();
+    }
+
+    static String generate() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        return Long.toHexString(random.nextLong() | Long.MIN_VALUE) + Long.toHexString(random.nextLong() | Long.MIN_VALUE);
+    }
+
+    private static boolean isValid(String value) {
+        if (value == null || value.isEmpty() || value.length() > MAX_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            boolean allowed = (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+            if (!allowed) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.MDC;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+//Servlet: id запроса в MDC на время обработки; регистрируется перед цепочкой Spring Security
+public class CorrelationIdFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String requestId = CorrelationId.resolve(request.getHeader(CorrelationId.HEADER));
+        response.setHeader(CorrelationId.HEADER, requestId);
+
+        MDC.put(CorrelationId.MDC_KEY, requestId);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            MDC.remove(CorrelationId.MDC_KEY);
+        }
+    }
+}
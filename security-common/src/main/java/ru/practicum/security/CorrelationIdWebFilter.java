@@ -0,0 +1,43 @@
+package ru.practicum.security;
+
+import io.micrometer.context.ContextRegistry;
+import org.slf4j.MDC;
+import org.springframework.core.Ordered;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.util.context.Context;
+
+/*
+ * WebFlux: MDC привязан к потоку и на event loop не работает, поэтому id запроса
+ * передается в Reactor Context под ключом CorrelationId.MDC_KEY.
+ * В MDC его переносит Reactor при spring.reactor.context-propagation=auto
+ * (ThreadLocalAccessor ниже), так что строки лога шлюза тоже содержат requestId.
+ * Бин с наивысшим приоритетом - выполняется раньше SecurityWebFilterChain.
+ */
+public class CorrelationIdWebFilter implements WebFilter, Ordered {
+
+    static {
+        ContextRegistry.getInstance().registerThreadLocalAccessor(CorrelationId.MDC_KEY,
+                () -> MDC.get(CorrelationId.MDC_KEY),
+                value -> MDC.put(CorrelationId.MDC_KEY, value),
+                () -> MDC.remove(CorrelationId.MDC_KEY));
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        String requestId = CorrelationId.resolve(request.getHeaders().getFirst(CorrelationId.HEADER));
+        exchange.getResponse().getHeaders().set(CorrelationId.HEADER, requestId);
+
+        return chain.filter(exchange)
+                .contextWrite(Context.of(CorrelationId.MDC_KEY, requestId));
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE;
+    }
+}
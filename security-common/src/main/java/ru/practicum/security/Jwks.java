@@ -0,0 +1,79 @@
+package ru.practicum.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Преобразование RSA-ключей в JWK (RFC 7517) и обратно
+public final class Jwks {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private Jwks() {
+    }
+
+    public static Map<String, Object> toJwkSet(Map<String, ? extends PublicKey> keys) {
+        List<Map<String, Object>> jwks = keys.entrySet().stream()
+                .map(entry -> toJwk(entry.getKey(), entry.getValue()))
+                .toList();
+        return Map.of("keys", jwks);
+    }
+
+    public static Map<String, Object> toJwk(String kid, PublicKey key) {
+        if (!(key instanceof RSAPublicKey rsa)) {
+            throw new IllegalArgumentException("Unsupported key type: " + key.getAlgorithm());
+        }
+        Map<String, Object> jwk = new LinkedHashMap<>();
+        jwk.put("kty", "RSA");
+        jwk.put("kid", kid);
+        jwk.put("use", "sig");
+        jwk.put("alg", "RS256");
+        jwk.put("n", encode(rsa.getModulus()));
+        jwk.put("e", encode(rsa.getPublicExponent()));
+        return jwk;
+    }
+
+    //ключи без kid, не RSA или не для подписи пропускаются
+    public static Map<String, PublicKey> parse(String json) throws IOException, GeneralSecurityException {
+        JsonNode keys = MAPPER.readTree(json).path("keys");
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+
+        Map<String, PublicKey> result = new HashMap<>();
+        for (JsonNode jwk : keys) {
+            String kid = jwk.path("kid").asText(null);
+            String use = jwk.path("use").asText("sig");
+            if (kid == null || !"RSA".equals(jwk.path("kty").asText()) || !"sig".equals(use)) {
+                continue;
+            }
+            BigInteger modulus = decode(jwk.path("n").asText());
+            BigInteger exponent = decode(jwk.path("e").asText());
+            result.put(kid, keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+        return result;
+    }
+
+    private static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        //убираем ведущий нулевой байт знака
+        int offset = bytes.length > 1 && bytes[0] == 0 ? 1 : 0;
+        byte[] unsigned = new byte[bytes.length - offset];
+        System.arraycopy(bytes, offset, unsigned, 0, unsigned.length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(unsigned);
+    }
+
+    private static BigInteger decode(String value) {
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
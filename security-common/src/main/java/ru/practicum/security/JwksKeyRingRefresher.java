@@ -0,0 +1,93 @@
+package ru.practicum.security;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Фоновое обновление JwtKeyRing из JWKS auth-service.
+ * Запросы никогда не ждут загрузки: неизвестный kid только планирует внеочередное обновление
+ * (не чаще minRefreshInterval), а сам токен отклоняется.
+ * При ошибке загрузки остается предыдущий набор ключей.
+ */
+@Slf4j
+public class JwksKeyRingRefresher implements AutoCloseable {
+
+    private final JwtKeyRing keyRing;
+    private final URI jwksUri;
+    private final Duration refreshInterval;
+    private final long minRefreshIntervalNanos;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong lastRefresh = new AtomicLong(System.nanoTime() - Long.MAX_VALUE / 2);
+
+    public JwksKeyRingRefresher(JwtKeyRing keyRing, URI jwksUri,
+                                Duration refreshInterval, Duration minRefreshInterval) {
+        this.keyRing = keyRing;
+        this.jwksUri = jwksUri;
+        this.refreshInterval = refreshInterval;
+        this.minRefreshIntervalNanos = minRefreshInterval.toNanos();
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofSeconds(2))
+                .build();
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "jwks-refresher");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    public void start() {
+        keyRing.setUnknownKeyListener(kid -> requestRefresh());
+        scheduler.scheduleWithFixedDelay(this::refresh, 0, refreshInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    public void requestRefresh() {
+        long last = lastRefresh.get();
+        long now = System.nanoTime();
+        if (now - last >= minRefreshIntervalNanos && lastRefresh.compareAndSet(last, now)) {
+            scheduler.execute(this::refresh);
+        }
+    }
+
+    void refresh() {
+        lastRefresh.set(System.nanoTime());
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                    .timeout(Duration.ofSeconds(5))
+                    .GET()
+                    .build();
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                log.warn("JWKS refresh from {} failed with status {}", jwksUri, response.statusCode());
+                return;
+            }
+            Map<String, PublicKey> keys = Jwks.parse(response.body());
+            if (keys.isEmpty()) {
+                log.warn("JWKS from {} contains no usable keys, keeping {}", jwksUri, keyRing.keyIds());
+                return;
+            }
+            keyRing.replace(keys);
+            log.debug("JWKS refreshed from {}: {}", jwksUri, keys.keySet());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.warn("JWKS refresh from {} failed: {}", jwksUri, e.toString());
+        }
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
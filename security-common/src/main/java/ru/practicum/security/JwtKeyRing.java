@@ -0,0 +1,48 @@
+package ru.practicum.security;
+
+import java.security.PublicKey;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+//Открытые ключи проверки подписи по kid. Чтение без блокировок, набор заменяется целиком
+public class JwtKeyRing {
+
+    private final AtomicReference<Map<String, PublicKey>> keys = new AtomicReference<>(Map.of());
+
+    //вызывается при неизвестном kid, например чтобы запросить внеочередное обновление JWKS
+    private volatile Consumer<String> unknownKeyListener = kid -> {
+    };
+
+    public JwtKeyRing() {
+    }
+
+    public JwtKeyRing(Map<String, ? extends PublicKey> keys) {
+        replace(keys);
+    }
+
+    public PublicKey get(String kid) {
+        PublicKey key = keys.get().get(kid);
+        if (key == null) {
+            unknownKeyListener.accept(kid);
+        }
+        return key;
+    }
+
+    public void replace(Map<String, ? extends PublicKey> keys) {
+        this.keys.set(Map.copyOf(keys));
+    }
+
+    public Set<String> keyIds() {
+        return keys.get().keySet();
+    }
+
+    public boolean isEmpty() {
+        return keys.get().isEmpty();
+    }
+
+    public void setUnknownKeyListener(Consumer<String> unknownKeyListener) {
+        this.unknownKeyListener = unknownKeyListener;
+    }
+}
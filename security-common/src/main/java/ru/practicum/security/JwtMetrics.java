@@ -0,0 +1,99 @@
+package ru.practicum.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Метрики проверки токенов:
+ * jwt.verify{path=compact|jjwt, result=valid|invalid} - время разбора и проверки подписи,
+ * jwt.validation.failures{reason} - отказы по причинам.
+ * Теги только из фиксированных наборов, без subject/jti.
+ */
+public class JwtMetrics {
+
+    public enum Failure {
+        MISSING("missing"),
+        MALFORMED("malformed"),
+        SIGNATURE("bad_signature"),
+        UNSUPPORTED("unsupported"),
+        EXPIRED("expired"),
+        NOT_BEFORE("nbf"),
+        AUDIENCE("audience"),
+        ISSUER("issuer"),
+        REVOKED("revoked");
+
+        private final String tag;
+
+        Failure(String tag) {
+            this.tag = tag;
+        }
+    }
+
+    private static final JwtMetrics DISABLED = new JwtMetrics(new CompositeMeterRegistry(), false);
+
+    private final boolean enabled;
+    private final Timer compactValid;
+    private final Timer compactInvalid;
+    private final Timer parserValid;
+    private final Timer parserInvalid;
+    private final Counter[] failures;
+
+    public JwtMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, true);
+    }
+
+    private JwtMetrics(MeterRegistry meterRegistry, boolean enabled) {
+        this.enabled = enabled;
+        this.compactValid = verifyTimer(meterRegistry, "compact", "valid");
+        this.compactInvalid = verifyTimer(meterRegistry, "compact", "invalid");
+        this.parserValid = verifyTimer(meterRegistry, "jjwt", "valid");
+        this.parserInvalid = verifyTimer(meterRegistry, "jjwt", "invalid");
+
+        Failure[] reasons = Failure.values();
+        this.failures = new Counter[reasons.length];
+        for (Failure reason : reasons) {
+            failures[reason.ordinal()] = Counter.builder("jwt.validation.failures")
+                    .description("Rejected access tokens")
+                    .tag("reason", reason.tag)
+                    .register(meterRegistry);
+        }
+    }
+
+    //без MeterRegistry (бенчмарки, тесты): без System.nanoTime на горячем пути
+    public static JwtMetrics disabled() {
+        return DISABLED;
+    }
+
+    long start() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void recordCompact(long start, boolean valid) {
+        if (enabled) {
+            (valid ? compactValid : compactInvalid).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    void recordParser(long start, boolean valid) {
+        if (enabled) {
+            (valid ? parserValid : parserInvalid).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public void failure(Failure reason) {
+        failures[reason.ordinal()].increment();
+    }
+
+    private static Timer verifyTimer(MeterRegistry meterRegistry, String path, String result) {
+        return Timer.builder("jwt.verify")
+                .description("Access token parsing and signature verification")
+                .tag("path", path)
+                .tag("result", result)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+}
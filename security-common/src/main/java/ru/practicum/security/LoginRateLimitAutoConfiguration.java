@@ -0,0 +1,20 @@
+package ru.practicum.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+
+//Лимит попыток входа (security.login-rate-limit): в шлюзе - по IP в фильтре и по email в UserController,
+//в auth-service - по email и неудачным входам до BCrypt
+@AutoConfiguration
+@EnableConfigurationProperties(LoginRateLimitProperties.class)
+public class LoginRateLimitAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public LoginRateLimiter loginRateLimiter(LoginRateLimitProperties properties, MeterRegistry meterRegistry) {
+        return new LoginRateLimiter(properties, meterRegistry);
+    }
+}
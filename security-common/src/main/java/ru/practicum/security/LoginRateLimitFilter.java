@@ -0,0 +1,40 @@
+package ru.practicum.security;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+//Servlet: лимит попыток входа по IP до разбора тела и до проксирования в auth-service
+public class LoginRateLimitFilter extends OncePerRequestFilter {
+
+    static final SecurityErrorResponse TOO_MANY_ATTEMPTS = SecurityErrorResponse.of(429, "Too many login attempts");
+
+    private final LoginRateLimiter limiter;
+
+    public LoginRateLimitFilter(LoginRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long retryAfter = limiter.checkIp(request.getRemoteAddr());
+        if (retryAfter > 0) {
+            response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            TOO_MANY_ATTEMPTS.write(response);
+            return;
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !limiter.appliesTo(request.getMethod(), request.getRequestURI(), request.getContextPath().length());
+    }
+}
@@ -0,0 +1,49 @@
+package ru.practicum.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+//Ограничение попыток входа (security.login-rate-limit)
+@ConfigurationProperties(prefix = "security.login-rate-limit")
+@Getter
+@Setter
+public class LoginRateLimitProperties {
+
+    private boolean enabled = true;
+
+    //пути, где действует ограничение по IP (только POST)
+    private List<String> paths = new ArrayList<>(List.of("/auth/login"));
+
+    //capacity 0 - ограничение отключено
+    private Bucket perIp = new Bucket(20, Duration.ofMinutes(1));
+
+    private Bucket perEmail = new Bucket(5, Duration.ofMinutes(1));
+
+    //неудачных входов на email в failure-window, после чего BCrypt не запускается; 0 - без учета
+    private int maxFailures = 0;
+
+    private Duration failureWindow = Duration.ofMinutes(15);
+
+    //максимум ключей в каждой таблице (IP, email, неудачи)
+    private long maxKeys = 100_000;
+
+    @Getter
+    @Setter
+    public static class Bucket {
+        private int capacity;
+        private Duration refillPeriod;
+
+        public Bucket() {
+        }
+
+        public Bucket(int capacity, Duration refillPeriod) {
+            this.capacity = capacity;
+            this.refillPeriod = refillPeriod;
+        }
+    }
+}
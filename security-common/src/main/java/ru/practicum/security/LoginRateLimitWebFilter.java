@@ -0,0 +1,46 @@
+package ru.practicum.security;
+
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+
+//WebFlux: лимит попыток входа по IP, сразу после CorrelationIdWebFilter
+public class LoginRateLimitWebFilter implements WebFilter, Ordered {
+
+    private final LoginRateLimiter limiter;
+
+    public LoginRateLimitWebFilter(LoginRateLimiter limiter) {
+        this.limiter = limiter;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        ServerHttpRequest request = exchange.getRequest();
+        if (!limiter.appliesTo(request.getMethod().name(), request.getPath().pathWithinApplication().value(), 0)) {
+            return chain.filter(exchange);
+        }
+
+        long retryAfter = limiter.checkIp(clientIp(request));
+        if (retryAfter > 0) {
+            exchange.getResponse().getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter));
+            return LoginRateLimitFilter.TOO_MANY_ATTEMPTS.write(exchange.getResponse());
+        }
+        return chain.filter(exchange);
+    }
+
+    private static String clientIp(ServerHttpRequest request) {
+        InetSocketAddress remote = request.getRemoteAddress();
+        return remote == null || remote.getAddress() == null ? null : remote.getAddress().getHostAddress();
+    }
+
+    @Override
+    public int getOrder() {
+        return Ordered.HIGHEST_PRECEDENCE + 1;
+    }
+}
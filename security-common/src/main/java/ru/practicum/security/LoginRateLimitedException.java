@@ -0,0 +1,29 @@
+package ru.practicum.security;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+//429 с Retry-After; заголовок выставляют стандартные обработчики ResponseStatusException (MVC и WebFlux).
+//Без стека: бросается на каждый отсеченный запрос при переборе
+public class LoginRateLimitedException extends ResponseStatusException {
+
+    private final long retryAfterSeconds;
+
+    public LoginRateLimitedException(long retryAfterSeconds) {
+        super(HttpStatus.TOO_MANY_REQUESTS, "Too many login attempts");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    @Override
+    public Throwable fillInStackTrace() {
+        return this;
+    }
+
+    @Override
+    public HttpHeaders getHeaders() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds));
+        return headers;
+    }
+}
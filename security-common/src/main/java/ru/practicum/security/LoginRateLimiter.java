@@ -0,0 +1,108 @@
+package ru.practicum.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+/*
+ * Попытки входа по IP и по email (token bucket) и неудачные входы по email (скользящее окно).
+ * Все проверки - до BCrypt и до запроса в БД. Методы check* возвращают Retry-After в секундах, 0 - разрешено.
+ * Отказы считаются в auth.login.rate-limited{limit=ip|email|failures}.
+ */
+public class LoginRateLimiter {
+
+    private static final int MAX_EMAIL_LENGTH = 320;
+
+    private final boolean enabled;
+    private final TokenBucketLimiter perIp;
+    private final TokenBucketLimiter perEmail;
+    private final SlidingWindowCounter failures;
+    private final int maxFailures;
+    private final PublicPathMatcher paths;
+
+    private final Counter ipRejected;
+    private final Counter emailRejected;
+    private final Counter failuresRejected;
+
+    public LoginRateLimiter(LoginRateLimitProperties properties, MeterRegistry meterRegistry) {
+        this.enabled = properties.isEnabled();
+        this.perIp = bucket(properties.getPerIp(), properties.getMaxKeys());
+        this.perEmail = bucket(properties.getPerEmail(), properties.getMaxKeys());
+        this.maxFailures = properties.getMaxFailures();
+        this.failures = maxFailures > 0
+                ? new SlidingWindowCounter(properties.getFailureWindow(), properties.getMaxKeys())
+                : null;
+        this.paths = new PublicPathMatcher(properties.getPaths());
+
+        this.ipRejected = rejectedCounter(meterRegistry, "ip");
+        this.emailRejected = rejectedCounter(meterRegistry, "email");
+        this.failuresRejected = rejectedCounter(meterRegistry, "failures");
+    }
+
+    //путь из security.login-rate-limit.paths
+    public boolean appliesTo(String method, String path, int offset) {
+        return enabled && perIp != null && "POST".equals(method) && paths.matches(path, offset);
+    }
+
+    public long checkIp(String ip) {
+        if (!enabled || perIp == null || ip == null) {
+            return 0;
+        }
+        return rejected(perIp.tryAcquire(ip), ipRejected);
+    }
+
+    public long checkEmail(String email) {
+        if (!enabled || email == null) {
+            return 0;
+        }
+        String key = normalize(email);
+        if (failures != null && failures.count(key) >= maxFailures) {
+            failuresRejected.increment();
+            return Math.max(1, TimeUnit.NANOSECONDS.toSeconds(failures.remainingNanos(key)));
+        }
+        return perEmail == null ? 0 : rejected(perEmail.tryAcquire(key), emailRejected);
+    }
+
+    //неверный пароль или неизвестный email
+    public void recordFailure(String email) {
+        if (enabled && failures != null && email != null) {
+            failures.increment(normalize(email));
+        }
+    }
+
+    public void recordSuccess(String email) {
+        if (enabled && failures != null && email != null) {
+            failures.reset(normalize(email));
+        }
+    }
+
+    private static long rejected(long waitNanos, Counter counter) {
+        if (waitNanos == 0) {
+            return 0;
+        }
+        counter.increment();
+        //округление вверх: Retry-After не меньше секунды
+        return Math.max(1, (waitNanos + TimeUnit.SECONDS.toNanos(1) - 1) / TimeUnit.SECONDS.toNanos(1));
+    }
+
+    private static TokenBucketLimiter bucket(LoginRateLimitProperties.Bucket bucket, long maxKeys) {
+        return bucket == null || bucket.getCapacity() <= 0
+                ? null
+                : new TokenBucketLimiter(bucket.getCapacity(), bucket.getRefillPeriod(), maxKeys);
+    }
+
+    //длина ключа ограничена, чтобы таблица не росла за счет длинных строк в запросе
+    private static String normalize(String email) {
+        String key = email.length() > MAX_EMAIL_LENGTH ? email.substring(0, MAX_EMAIL_LENGTH) : email;
+        return key.toLowerCase(Locale.ROOT);
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String limit) {
+        return Counter.builder("auth.login.rate-limited")
+                .description("Login attempts rejected before password hashing")
+                .tag("limit", limit)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,56 @@
+package ru.practicum.security;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/*
+ * Публичные пути, разобранные при старте: "/auth/login" - только этот путь,
+ * "/actuator/**" - сам "/actuator" и всё под "/actuator/".
+ * Проверка сравнивает строки на месте (regionMatches), без выделения памяти.
+ */
+public final class PublicPathMatcher {
+
+    private static final String ANY_SUFFIX = "/**";
+
+    private final String[] exact;
+    //префиксы вида "/actuator/"
+    private final String[] prefixes;
+
+    public PublicPathMatcher(List<String> patterns) {
+        List<String> exactPaths = new ArrayList<>();
+        List<String> prefixPaths = new ArrayList<>();
+        for (String pattern : patterns) {
+            String path = pattern.trim();
+            if (!path.startsWith("/")) {
+                throw new IllegalArgumentException("Public path must start with '/': " + pattern);
+            }
+            if (path.endsWith(ANY_SUFFIX)) {
+                String base = path.substring(0, path.length() - ANY_SUFFIX.length());
+                exactPaths.add(base.isEmpty() ? "/" : base);
+                prefixPaths.add(base + "/");
+            } else if (path.indexOf('*') >= 0) {
+                throw new IllegalArgumentException("Only exact paths and '/**' suffixes are supported: " + pattern);
+            } else {
+                exactPaths.add(path);
+            }
+        }
+        this.exact = exactPaths.toArray(String[]::new);
+        this.prefixes = prefixPaths.toArray(String[]::new);
+    }
+
+    //путь запроса - requestURI начиная с offset (длина contextPath)
+    public boolean matches(String requestUri, int offset) {
+        int length = requestUri.length() - offset;
+        for (String path : exact) {
+            if (path.length() == length && requestUri.regionMatches(offset, path, 0, length)) {
+                return true;
+            }
+        }
+        for (String prefix : prefixes) {
+            if (prefix.length() <= length && requestUri.regionMatches(offset, prefix, 0, prefix.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,21 @@
+package ru.practicum.security;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+//Пути без токена (security.public-paths): точный путь или префикс с /** на конце
+@ConfigurationProperties(prefix = "security")
+@Getter
+@Setter
+public class PublicPathsProperties {
+
+    private List<String> publicPaths = new ArrayList<>();
+
+    public String[] toArray() {
+        return publicPaths.toArray(String[]::new);
+    }
+}
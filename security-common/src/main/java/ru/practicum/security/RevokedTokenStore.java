@@ -0,0 +1,150 @@
+package ru.practicum.security;
+
+import java.time.Instant;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Отозванные токены по jti. Запись хранится до exp токена: после него токен и так не пройдет проверку.
+ * Проверка O(1) без блокировок: фильтр Блума отсекает почти все неотозванные jti,
+ * точный ответ дает ConcurrentHashMap.
+ * Просроченные записи удаляются при очередном revoke (не чаще purgeIntervalMillis),
+ * фильтр Блума при этом пересобирается. Пересборки идут по одной; собираемый фильтр виден в next
+ * до обхода revoked, и revoke пишет jti в оба фильтра - после возврата из revoke jti есть
+ * и в текущем фильтре, и в любом, который будет опубликован позже.
+ */
+public class RevokedTokenStore {
+
+    private static final long DEFAULT_PURGE_INTERVAL_MILLIS = 60_000;
+
+    //jti -> exp в секундах
+    private final ConcurrentHashMap<String, Long> revoked = new ConcurrentHashMap<>();
+    private final AtomicReference<BloomFilter> filter;
+    private final AtomicLong lastPurge = new AtomicLong(System.currentTimeMillis());
+    private final Object rebuildLock = new Object();
+    //фильтр, который собирает идущая пересборка; null - пересборки нет
+    private volatile BloomFilter next;
+    private final int expectedSize;
+    private final double falsePositiveRate;
+    private final long purgeIntervalMillis;
+
+    public RevokedTokenStore(int expectedSize, double falsePositiveRate) {
+        this(expectedSize, falsePositiveRate, DEFAULT_PURGE_INTERVAL_MILLIS);
+    }
+
+    public RevokedTokenStore(int expectedSize, double falsePositiveRate, long purgeIntervalMillis) {
+        this.expectedSize = expectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.purgeIntervalMillis = purgeIntervalMillis;
+        this.filter = new AtomicReference<>(new BloomFilter(expectedSize, falsePositiveRate));
+    }
+
+    public static RevokedTokenStore empty() {
+        return new RevokedTokenStore(1024, 0.01);
+    }
+
+    public boolean isRevoked(VerifiedToken token) {
+        return isRevoked(token.getJwtId());
+    }
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || revoked.isEmpty()) {
+            return false;
+        }
+        return filter.get().mightContain(jti) && revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        long now = System.currentTimeMillis();
+        if (jti == null || expiresAt.toEpochMilli() <= now) {
+            return;
+        }
+
+        revoked.merge(jti, expiresAt.getEpochSecond(), Math::max);
+        //next читается до filter: если пересборка начала обход revoked раньше merge и могла пропустить jti,
+        //ее фильтр уже виден здесь; если она успела закончиться - filter уже новый
+        BloomFilter upcoming = next;
+        filter.get().put(jti);
+        if (upcoming != null) {
+            upcoming.put(jti);
+        }
+
+        long last = lastPurge.get();
+        if (now - last >= purgeIntervalMillis && lastPurge.compareAndSet(last, now)) {
+            purgeExpired();
+        }
+    }
+
+    public int purgeExpired() {
+        synchronized (rebuildLock) {
+            long nowSeconds = Instant.now().getEpochSecond();
+            int before = revoked.size();
+            revoked.values().removeIf(expiration -> expiration < nowSeconds);
+
+            BloomFilter rebuilt = new BloomFilter(Math.max(expectedSize, revoked.size() * 2), falsePositiveRate);
+            next = rebuilt;
+            revoked.keySet().forEach(rebuilt::put);
+            filter.set(rebuilt);
+            next = null;
+            return before - revoked.size();
+        }
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    private static final class BloomFilter {
+
+        private final AtomicLongArray bits;
+        private final long bitCount;
+        private final int hashCount;
+
+        private BloomFilter(int expectedSize, double falsePositiveRate) {
+            long size = (long) Math.ceil(-expectedSize * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+            this.bits = new AtomicLongArray((int) Math.max(1, (size + 63) >>> 6));
+            this.bitCount = (long) bits.length() << 6;
+            this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedSize * Math.log(2)));
+        }
+
+        private void put(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitCount);
+                long mask = 1L << index;
+                bits.getAndAccumulate((int) (index >>> 6), mask, (word, bit) -> word | bit);
+            }
+        }
+
+        private boolean mightContain(String value) {
+            long hash1 = hash(value);
+            long hash2 = mix(hash1) | 1;
+            for (int i = 0; i < hashCount; i++) {
+                long index = Math.floorMod(hash1 + i * hash2, bitCount);
+                if ((bits.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        //FNV-1a по символам и перемешивание, без выделения памяти
+        private static long hash(String value) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < value.length(); i++) {
+                hash ^= value.charAt(i);
+                hash *= 0x100000001b3L;
+            }
+            return mix(hash);
+        }
+
+        private static long mix(long value) {
+            value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+            value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+            return value ^ (value >>> 31);
+        }
+    }
+}
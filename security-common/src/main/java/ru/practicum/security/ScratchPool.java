@@ -0,0 +1,55 @@
+package ru.practicum.security;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+/*
+ * Переиспользуемые буферы (Mac, MessageDigest, массивы) для горячего пути проверки токена.
+ * Платформенные потоки пулов Tomcat/Netty живут долго - им достаточно ThreadLocal.
+ * Виртуальный поток создается на каждый запрос, и ThreadLocal создавал бы буфер заново,
+ * поэтому для них - небольшой пул без блокировок (без synchronized, чтобы не закреплять carrier-поток).
+ * Если пул пуст, создается новый объект; лишние при возврате отбрасываются.
+ */
+final class ScratchPool<T> {
+
+    private final Supplier<T> factory;
+    private final ThreadLocal<T> threadLocal;
+    private final AtomicReferenceArray<T> slots;
+
+    ScratchPool(Supplier<T> factory) {
+        this.factory = factory;
+        this.threadLocal = ThreadLocal.withInitial(factory);
+        this.slots = new AtomicReferenceArray<>(Runtime.getRuntime().availableProcessors() * 4);
+    }
+
+    T acquire() {
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            return threadLocal.get();
+        }
+        int length = slots.length();
+        int start = (int) (thread.threadId() % length);
+        for (int i = 0; i < length; i++) {
+            T value = slots.getAndSet((start + i) % length, null);
+            if (value != null) {
+                return value;
+            }
+        }
+        return factory.get();
+    }
+
+    //для платформенного потока объект и так остается в ThreadLocal
+    void release(T value) {
+        Thread thread = Thread.currentThread();
+        if (!thread.isVirtual()) {
+            return;
+        }
+        int length = slots.length();
+        int start = (int) (thread.threadId() % length);
+        for (int i = 0; i < length; i++) {
+            if (slots.compareAndSet((start + i) % length, null, value)) {
+                return;
+            }
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package ru.practicum.security;
+
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import reactor.core.publisher.Mono;
+import ru.practicum.exception.JsonStrings;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/*
+ * JSON-ответ об ошибке из цепочки фильтров безопасности:
+ * {"error":"...","status":401,"message":"...","timestamp":"..."} (message - необязательно).
+ * Всё, кроме timestamp, кодируется в UTF-8 один раз; timestamp с точностью до секунды
+ * тоже кэшируется. Тело пишется прямо в OutputStream с Content-Length, без PrintWriter,
+ * в реактивном шлюзе - одним DataBuffer.
+ */
+public final class SecurityErrorResponse {
+
+    private static final String CONTENT_TYPE = "application/json;charset=UTF-8";
+    private static final byte[] TIMESTAMP_PREFIX = ascii(",\"timestamp\":\"");
+    private static final byte[] SUFFIX = ascii("\"}");
+
+    private static volatile Timestamp timestamp = new Timestamp(Long.MIN_VALUE, new byte[0]);
+
+    private final int status;
+    //{"error":"...","status":401[,"message":"..."]
+    private final byte[] body;
+
+    private SecurityErrorResponse(int status, byte[] body) {
+        this.status = status;
+        this.body = body;
+    }
+
+    //для постоянных ответов - создать один раз и хранить в константе
+    public static SecurityErrorResponse of(int status, String error) {
+        return of(status, error, null);
+    }
+
+    public static SecurityErrorResponse of(int status, String error, String message) {
+        StringBuilder json = new StringBuilder(64)
+                .append("{\"error\":\"");
+        JsonStrings.escape(error, json);
+        json.append("\",\"status\":").append(status);
+        if (message != null) {
+            json.append(",\"message\":\"");
+            JsonStrings.escape(message, json);
+            json.append('"');
+        }
+        return new SecurityErrorResponse(status, json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    //для ответов с текстом исключения
+    public static void write(HttpServletResponse response, int status, String error, String message)
+            throws IOException {
+        of(status, error, message).write(response);
+    }
+
+    public void write(HttpServletResponse response) throws IOException {
+        byte[] time = currentTimestamp();
+        response.setStatus(status);
+        response.setContentType(CONTENT_TYPE);
+        response.setContentLength(body.length + TIMESTAMP_PREFIX.length + time.length + SUFFIX.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(body);
+        out.write(TIMESTAMP_PREFIX);
+        out.write(time);
+        out.write(SUFFIX);
+    }
+
+    public Mono<Void> write(ServerHttpResponse response) {
+        byte[] time = currentTimestamp();
+        byte[] bytes = new byte[body.length + TIMESTAMP_PREFIX.length + time.length + SUFFIX.length];
+        int pos = copy(body, bytes, 0);
+        pos = copy(TIMESTAMP_PREFIX, bytes, pos);
+        pos = copy(time, bytes, pos);
+        copy(SUFFIX, bytes, pos);
+
+        response.setStatusCode(HttpStatusCode.valueOf(status));
+        HttpHeaders headers = response.getHeaders();
+        headers.set(HttpHeaders.CONTENT_TYPE, CONTENT_TYPE);
+        headers.setContentLength(bytes.length);
+        return response.writeWith(Mono.just(response.bufferFactory().wrap(bytes)));
+    }
+
+    public static Mono<Void> write(ServerHttpResponse response, int status, String error, String message) {
+        return of(status, error, message).write(response);
+    }
+
+    private static int copy(byte[] from, byte[] to, int pos) {
+        System.arraycopy(from, 0, to, pos, from.length);
+        return pos + from.length;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    private static byte[] currentTimestamp() {
+        long second = System.currentTimeMillis() / 1000;
+        Timestamp current = timestamp;
+        if (current.second() != second) {
+            current = new Timestamp(second, ascii(Instant.ofEpochSecond(second).toString()));
+            timestamp = current;
+        }
+        return current.bytes();
+    }
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private record Timestamp(long second, byte[] bytes) {
+    }
+}
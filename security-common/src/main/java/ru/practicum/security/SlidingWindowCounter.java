@@ -0,0 +1,77 @@
+package ru.practicum.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+/*
+ * Счетчик событий по ключу в скользящем окне (приближение по двум соседним окнам:
+ * предыдущее учитывается с весом оставшейся доли). Обновление - CAS неизменяемого Window.
+ * Ключей не больше maxKeys; без событий дольше двух окон счетчик равен нулю и вытесняется.
+ */
+public class SlidingWindowCounter {
+
+    private record Window(long start, int current, int previous) {
+    }
+
+    private final Cache<String, AtomicReference<Window>> counters;
+    private final long windowNanos;
+
+    public SlidingWindowCounter(Duration window, long maxKeys) {
+        this.windowNanos = window.toNanos();
+        this.counters = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(window.multipliedBy(2))
+                .build();
+    }
+
+    public void increment(String key) {
+        AtomicReference<Window> ref = counters.get(key, k -> new AtomicReference<>(new Window(System.nanoTime(), 0, 0)));
+        while (true) {
+            Window current = ref.get();
+            Window rolled = roll(current, System.nanoTime());
+            Window next = new Window(rolled.start(), rolled.current() + 1, rolled.previous());
+            if (ref.compareAndSet(current, next)) {
+                return;
+            }
+        }
+    }
+
+    public double count(String key) {
+        AtomicReference<Window> ref = counters.getIfPresent(key);
+        if (ref == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        Window window = roll(ref.get(), now);
+        double previousWeight = 1.0 - (double) (now - window.start()) / windowNanos;
+        return window.current() + window.previous() * previousWeight;
+    }
+
+    //сколько наносекунд осталось до конца текущего окна
+    public long remainingNanos(String key) {
+        AtomicReference<Window> ref = counters.getIfPresent(key);
+        if (ref == null) {
+            return 0;
+        }
+        long now = System.nanoTime();
+        return windowNanos - (now - roll(ref.get(), now).start());
+    }
+
+    public void reset(String key) {
+        counters.invalidate(key);
+    }
+
+    private Window roll(Window window, long now) {
+        long elapsed = now - window.start();
+        if (elapsed < windowNanos) {
+            return window;
+        }
+        if (elapsed < 2 * windowNanos) {
+            return new Window(window.start() + windowNanos, 0, window.current());
+        }
+        return new Window(now, 0, 0);
+    }
+}
@@ -0,0 +1,53 @@
+package ru.practicum.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/*
+ * Token bucket по ключу в форме GCRA: состояние корзины - одно число (теоретическое время
+ * следующего запроса, TAT) в AtomicLong, попытка - CAS без блокировок.
+ * capacity запросов подряд, дальше - один запрос на refillPeriod / capacity.
+ * Ключей не больше maxKeys; корзина без обращений дольше refillPeriod и так полная - она вытесняется.
+ */
+public class TokenBucketLimiter {
+
+    private final Cache<String, AtomicLong> buckets;
+    private final long intervalNanos;
+    private final long burstNanos;
+
+    public TokenBucketLimiter(int capacity, Duration refillPeriod, long maxKeys) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity must be positive: " + capacity);
+        }
+        this.intervalNanos = Math.max(1, refillPeriod.toNanos() / capacity);
+        this.burstNanos = intervalNanos * capacity;
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(refillPeriod)
+                .build();
+    }
+
+    //0 - разрешено, иначе сколько наносекунд ждать до следующего токена
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong(System.nanoTime()));
+        while (true) {
+            long now = System.nanoTime();
+            long current = tat.get();
+            long next = (current - now > 0 ? current : now) + intervalNanos;
+            long ahead = next - now;
+            if (ahead > burstNanos) {
+                return ahead - burstNanos;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    long size() {
+        return buckets.estimatedSize();
+    }
+}
@@ -0,0 +1,26 @@
+package ru.practicum.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+
+//Хранилище отозванных jti для шлюза и auth-service; с jwt.revocation.kafka.enabled - отзывы с других узлов из Kafka
+@AutoConfiguration
+public class TokenRevocationAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean
+    public RevokedTokenStore revokedTokenStore(@Value("${jwt.revocation.expected-size:100000}") int expectedSize,
+                                               @Value("${jwt.revocation.false-positive-rate:0.01}") double falsePositiveRate) {
+        return new RevokedTokenStore(expectedSize, falsePositiveRate);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    @ConditionalOnProperty(name = "jwt.revocation.kafka.enabled", havingValue = "true")
+    public TokenRevocationListener tokenRevocationListener(RevokedTokenStore revokedTokenStore) {
+        return new TokenRevocationListener(revokedTokenStore);
+    }
+}
@@ -0,0 +1,44 @@
+package ru.practicum.security;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.AbstractConsumerSeekAware;
+
+import java.time.Instant;
+import java.util.Map;
+
+/*
+ * Получает отозванные jti из Kafka (ключ - jti, значение - exp в секундах).
+ * У каждого узла своя постоянная группа (jwt.revocation.kafka.instance-id, по умолчанию HOSTNAME),
+ * а при каждом назначении партиций чтение начинается с начала топика, поэтому после рестарта
+ * узел заново получает все еще действующие отзывы (retention топика >= времени жизни токена).
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class TokenRevocationListener extends AbstractConsumerSeekAware {
+
+    private final RevokedTokenStore revokedTokens;
+
+    @KafkaListener(
+            topics = "${jwt.revocation.topic}",
+            groupId = "${spring.application.name}-revocations-${jwt.revocation.kafka.instance-id:${HOSTNAME:local}}",
+            properties = {"auto.offset.reset=earliest", "enable.auto.commit=false"}
+    )
+    public void onRevoked(ConsumerRecord<String, String> record) {
+        try {
+            revokedTokens.revoke(record.key(), Instant.ofEpochSecond(Long.parseLong(record.value())));
+        } catch (RuntimeException e) {
+            log.warn("Skipping malformed revocation record at offset {}: {}", record.offset(), e.toString());
+        }
+    }
+
+    //сохраненные смещения группы не используются: хранилище в памяти пустое после старта
+    @Override
+    public void onPartitionsAssigned(Map<TopicPartition, Long> assignments, ConsumerSeekCallback callback) {
+        super.onPartitionsAssigned(assignments, callback);
+        callback.seekToBeginning(assignments.keySet());
+    }
+}
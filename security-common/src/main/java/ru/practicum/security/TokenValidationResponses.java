@@ -0,0 +1,37 @@
+package ru.practicum.security;
+
+import ru.practicum.user.ValidationResult;
+
+//Единый формат ответа /auth/validate для auth-service и gateway
+public final class TokenValidationResponses {
+
+    private static final ValidationResult INVALID_HEADER = ValidationResult.builder()
+            .valid(false)
+            .message("Invalid Header")
+            .build();
+
+    private static final ValidationResult INVALID_TOKEN = ValidationResult.builder()
+            .valid(false)
+            .message("Invalid Token")
+            .build();
+
+    private TokenValidationResponses() {
+    }
+
+    public static ValidationResult invalidHeader() {
+        return INVALID_HEADER;
+    }
+
+    public static ValidationResult invalidToken() {
+        return INVALID_TOKEN;
+    }
+
+    public static ValidationResult valid(VerifiedToken token) {
+        return ValidationResult.builder()
+                .valid(true)
+                .username(token.getSubject())
+                .role(token.getRole())
+                .message("Token is valid")
+                .build();
+    }
+}
@@ -0,0 +1,37 @@
+package ru.practicum.security;
+
+import ru.practicum.security.JwtMetrics.Failure;
+
+import java.util.Optional;
+
+/*
+ * Итог проверки токена без исключений: Valid с claims или Rejected с причиной.
+ * Rejected на каждую причину один (без аллокаций на пути отказа).
+ */
+public sealed interface VerificationResult permits VerificationResult.Valid, VerificationResult.Rejected {
+
+    record Valid(VerifiedToken token) implements VerificationResult {
+    }
+
+    record Rejected(Failure reason) implements VerificationResult {
+
+        private static final Rejected[] BY_REASON = create();
+
+        public static Rejected of(Failure reason) {
+            return BY_REASON[reason.ordinal()];
+        }
+
+        private static Rejected[] create() {
+            Failure[] reasons = Failure.values();
+            Rejected[] rejected = new Rejected[reasons.length];
+            for (Failure reason : reasons) {
+                rejected[reason.ordinal()] = new Rejected(reason);
+            }
+            return rejected;
+        }
+    }
+
+    default Optional<VerifiedToken> token() {
+        return this instanceof Valid valid ? Optional.of(valid.token()) : Optional.empty();
+    }
+}
@@ -0,0 +1,65 @@
+package ru.practicum.security;
+
+import io.jsonwebtoken.Claims;
+import lombok.Builder;
+import lombok.Value;
+import ru.practicum.user.Roles;
+
+import java.time.Instant;
+import java.util.Date;
+
+//Результат однократного разбора и проверки подписи токена.
+//Понимает оба формата claims: полный (role, email) и компактный (r - код роли, e)
+@Value
+@Builder
+public class VerifiedToken {
+    public static final String ROLE = "role";
+    public static final String EMAIL = "email";
+    public static final String COMPACT_ROLE = "r";
+    public static final String COMPACT_EMAIL = "e";
+
+    String subject;
+    String role;
+    String email;
+    String jwtId;
+    String issuer;
+    String audience;
+    Instant issuedAt;
+    Instant expiration;
+    Instant notBefore;
+
+    public static VerifiedToken of(Claims claims) {
+        return VerifiedToken.builder()
+                .subject(claims.getSubject())
+                .role(role(claims))
+                .email(claims.containsKey(EMAIL) ? claims.get(EMAIL, String.class) : claims.get(COMPACT_EMAIL, String.class))
+                .jwtId(claims.getId())
+                .issuer(claims.getIssuer())
+                .audience(claims.getAudience())
+                .issuedAt(toInstant(claims.getIssuedAt()))
+                .expiration(toInstant(claims.getExpiration()))
+                .notBefore(toInstant(claims.getNotBefore()))
+                .build();
+    }
+
+    private static String role(Claims claims) {
+        if (claims.containsKey(ROLE)) {
+            return claims.get(ROLE, String.class);
+        }
+        Number code = claims.get(COMPACT_ROLE, Number.class);
+        Roles role = code == null ? null : Roles.fromCode(code.longValue());
+        return role == null ? null : role.name();
+    }
+
+    public boolean isExpiredAt(Instant now) {
+        return expiration == null || expiration.isBefore(now);
+    }
+
+    public boolean isActiveAt(Instant now) {
+        return notBefore == null || !now.isBefore(notBefore);
+    }
+
+    private static Instant toInstant(Date date) {
+        return date == null ? null : date.toInstant();
+    }
+}
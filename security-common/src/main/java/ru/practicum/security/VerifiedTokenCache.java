@@ -0,0 +1,136 @@
+package ru.practicum.security;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+//Кэш уже проверенных токенов: ключ - SHA-256 от токена, запись живет до exp или ttl
+public class VerifiedTokenCache {
+
+    private static final ScratchPool<Scratch> SCRATCH = new ScratchPool<>(Scratch::new);
+
+    private final Cache<ByteBuffer, VerifiedToken> cache;
+
+    public VerifiedTokenCache(long maxSize, Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new TokenExpiry(ttl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    private VerifiedTokenCache() {
+        this.cache = null;
+    }
+
+    public static VerifiedTokenCache disabled() {
+        return new VerifiedTokenCache();
+    }
+
+    public boolean isEnabled() {
+        return cache != null;
+    }
+
+    public Cache<ByteBuffer, VerifiedToken> getNativeCache() {
+        return cache;
+    }
+
+    //токен берется из source начиная с offset, чтобы не делать substring на каждый запрос
+    public Optional<VerifiedToken> get(String source, int offset, Verifier verifier) {
+        if (cache == null) {
+            return verifier.verify(source, offset);
+        }
+
+        ByteBuffer key = digest(source, offset);
+        if (key == null) {
+            return verifier.verify(source, offset);
+        }
+
+        VerifiedToken cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        Optional<VerifiedToken> verified = verifier.verify(source, offset);
+        verified.ifPresent(value -> cache.put(key, value));
+        return verified;
+    }
+
+    public void invalidateAll() {
+        if (cache != null) {
+            cache.invalidateAll();
+        }
+    }
+
+    //не-ASCII токены в кэш не попадают: иначе разные строки дали бы одинаковые байты
+    private static ByteBuffer digest(String source, int offset) {
+        Scratch scratch = SCRATCH.acquire();
+        try {
+            int length = source.length() - offset;
+            byte[] bytes = scratch.bytes(length);
+            for (int i = 0; i < length; i++) {
+                char c = source.charAt(offset + i);
+                if (c >= 128) {
+                    return null;
+                }
+                bytes[i] = (byte) c;
+            }
+            MessageDigest digest = scratch.digest;
+            digest.update(bytes, 0, length);
+            return ByteBuffer.wrap(digest.digest());
+        } finally {
+            SCRATCH.release(scratch);
+        }
+    }
+
+    private static final class Scratch {
+        private final MessageDigest digest;
+        private byte[] bytes = new byte[512];
+
+        private Scratch() {
+            try {
+                this.digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 is not available", e);
+            }
+        }
+
+        private byte[] bytes(int length) {
+            if (bytes.length < length) {
+                bytes = new byte[length];
+            }
+            return bytes;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Verifier {
+        Optional<VerifiedToken> verify(String source, int offset);
+    }
+
+    private record TokenExpiry(long ttlNanos) implements Expiry<ByteBuffer, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(ByteBuffer key, VerifiedToken value, long currentTime) {
+            long untilExpiration = value.getExpiration().toEpochMilli() - System.currentTimeMillis();
+            return Math.max(0, Math.min(ttlNanos, TimeUnit.MILLISECONDS.toNanos(untilExpiration)));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package ru.practicum.security;
+
+import io.jsonwebtoken.ClaimJwtException;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Date;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+//Быстрый путь и предпроверка exp не должны расходиться с JJWT ни в одну сторону
+class CompactJwsReaderTest {
+
+    private static final byte[] KEY = "0123456789abcdef0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] OTHER_KEY = "fedcba9876543210fedcba9876543210".getBytes(StandardCharsets.US_ASCII);
+    private static final String KID = "test-key";
+    private static final KeyPair RSA = rsaKeyPair();
+
+    private static final long NOW = Instant.now().getEpochSecond();
+    private static final long FUTURE = NOW + 600;
+    private static final long PAST = NOW - 3600;
+
+    private static final String SUB = "\"sub\":\"alice\"";
+    private static final String ROLE = "\"role\":\"USER\"";
+    private static final String JTI = "\"jti\":\"jti-1\"";
+    private static final String ISS = "\"iss\":\"auth-service\"";
+    private static final String AUD = "\"aud\":\"gateway\"";
+    private static final String IAT = "\"iat\":" + NOW;
+    private static final String EXP = "\"exp\":" + FUTURE;
+
+    private final CommonJwtService service = new CommonJwtService(
+            Base64.getEncoder().encodeToString(KEY), 900_000, new JwtKeyRing(Map.of(KID, RSA.getPublic())));
+    private final CompactJwsReader reader = new CompactJwsReader(KEY);
+
+    static Stream<Arguments> tokens() {
+        return Stream.of(
+                Arguments.of("valid", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, EXP))),
+                Arguments.of("valid-compact", hs256(json(SUB, "\"r\":1", JTI, ISS, AUD, IAT, EXP))),
+                Arguments.of("expired", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, "\"exp\":" + PAST))),
+                Arguments.of("not-before", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, EXP, "\"nbf\":" + FUTURE))),
+                Arguments.of("wrong-aud", hs256(json(SUB, ROLE, JTI, ISS, "\"aud\":\"other\"", IAT, EXP))),
+                Arguments.of("wrong-iss", hs256(json(SUB, ROLE, JTI, "\"iss\":\"other\"", AUD, IAT, EXP))),
+                Arguments.of("bad-signature", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, EXP), OTHER_KEY)),
+                Arguments.of("escaped-claim", hs256(json("\"sub\":\"al\\\"ice\"", ROLE, JTI, ISS, AUD, IAT, EXP))),
+                Arguments.of("escaped-exp-key", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, "\"\\u0065xp\":" + FUTURE))),
+                Arguments.of("duplicate-claim", hs256(json(SUB, "\"sub\":\"bob\"", ROLE, JTI, ISS, AUD, IAT, EXP))),
+                Arguments.of("duplicate-exp-expired-first",
+                        hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, "\"exp\":" + PAST, EXP))),
+                Arguments.of("duplicate-exp-expired-last",
+                        hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, EXP, "\"exp\":" + PAST))),
+                Arguments.of("nested-exp", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, "\"ctx\":{\"exp\":" + PAST + "}", EXP))),
+                Arguments.of("exp-in-string", hs256(json(SUB, ROLE, JTI, ISS, AUD, IAT, "\"note\":\"\\\"exp\\\":1\"", EXP))),
+                Arguments.of("rs256", rs256())
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("tokens")
+    void validateMatchesParser(String name, String token) {
+        assertThat(service.validate(token).token()).isEqualTo(reference(token));
+        assertThat(service.validate("Bearer " + token, 7).token()).isEqualTo(reference(token));
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("tokens")
+    void readerVerdictAgreesWithParser(String name, String token) {
+        CompactJwsReader.Result result = reader.read(token, 0);
+        switch (result.verdict()) {
+            case VALID -> assertThat(result.token()).isEqualTo(signedClaims(token));
+            case INVALID -> assertThatThrownBy(() -> service.parse(token)).isInstanceOf(JwtException.class);
+            case UNDECIDED -> {
+            }
+        }
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("tokens")
+    void peekedExpirationIsTheParsedOne(String name, String token) {
+        long peeked = CompactJwsReader.peekExpiration(token, 0);
+        VerifiedToken claims = signedClaims(token);
+        if (peeked != Long.MIN_VALUE && claims != null) {
+            assertThat(peeked).isEqualTo(claims.getExpiration().getEpochSecond());
+        }
+    }
+
+    @Test
+    void peekReadsOnlyUnambiguousTopLevelExp() {
+        assertThat(peek(json(SUB, EXP))).isEqualTo(FUTURE);
+        assertThat(peek(json("\"ctx\":{\"exp\":" + PAST + "}", EXP))).isEqualTo(FUTURE);
+        assertThat(peek(json("\"note\":\"\\\"exp\\\":" + PAST + "\"", EXP))).isEqualTo(FUTURE);
+        assertThat(peek(json("\"exp\":" + PAST, EXP))).isEqualTo(Long.MIN_VALUE);
+        assertThat(peek(json("\"\\u0065xp\":" + PAST, EXP))).isEqualTo(Long.MIN_VALUE);
+        assertThat(peek(json(SUB, "\"exp\":1.5"))).isEqualTo(Long.MIN_VALUE);
+        assertThat(peek(json(SUB))).isEqualTo(Long.MIN_VALUE);
+    }
+
+    private static long peek(String payload) {
+        return CompactJwsReader.peekExpiration(hs256(payload), 0);
+    }
+
+    //только JJWT и те же проверки claims, что после быстрого пути
+    private Optional<VerifiedToken> reference(String token) {
+        try {
+            VerifiedToken parsed = service.parse(token);
+            return service.check(parsed) == null ? Optional.of(parsed) : Optional.empty();
+        } catch (JwtException | IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+
+    //claims после проверки подписи, даже если JJWT отклонил их по exp/nbf/iss/aud; null - подпись или формат
+    private VerifiedToken signedClaims(String token) {
+        try {
+            return service.parse(token);
+        } catch (ClaimJwtException e) {
+            return VerifiedToken.of(e.getClaims());
+        } catch (JwtException | IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String json(String... members) {
+        return "{" + String.join(",", members) + "}";
+    }
+
+    private static String hs256(String payload) {
+        return hs256(payload, KEY);
+    }
+
+    private static String hs256(String payload, byte[] key) {
+        String signingInput = encode("{\"alg\":\"HS256\"}") + "." + encode(payload);
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            byte[] signature = mac.doFinal(signingInput.getBytes(StandardCharsets.US_ASCII));
+            return signingInput + "." + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String rs256() {
+        return Jwts.builder()
+                .setHeaderParam("kid", KID)
+                .setSubject("alice")
+                .claim("role", "USER")
+                .setId("jti-1")
+                .setIssuer(CommonJwtService.ISSUER)
+                .setAudience(CommonJwtService.AUDIENCE)
+                .setIssuedAt(Date.from(Instant.ofEpochSecond(NOW)))
+                .setExpiration(Date.from(Instant.ofEpochSecond(FUTURE)))
+                .signWith(RSA.getPrivate(), SignatureAlgorithm.RS256)
+                .compact();
+    }
+
+    private static String encode(String json) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static KeyPair rsaKeyPair() {
+        try {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
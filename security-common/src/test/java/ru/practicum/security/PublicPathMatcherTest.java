@@ -0,0 +1,72 @@
+package ru.practicum.security;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PublicPathMatcherTest {
+
+    private final PublicPathMatcher matcher = new PublicPathMatcher(List.of(
+            "/auth/login",
+            " /auth/register ",
+            "/actuator/**"
+    ));
+
+    @ParameterizedTest
+    @CsvSource({
+            "/auth/login, true",
+            "/auth/register, true",
+            "/auth/login/, false",
+            "/auth/login/x, false",
+            "/auth/loginX, false",
+            "/auth, false",
+            "/actuator, true",
+            "/actuator/, true",
+            "/actuator/health, true",
+            "/actuator/health/liveness, true",
+            "/actuatorX, false",
+            "/actuator-x/health, false",
+            "/actuato, false",
+            "/, false"
+    })
+    void matchesExactPathsAndPrefixes(String path, boolean expected) {
+        assertThat(matcher.matches(path, 0)).isEqualTo(expected);
+    }
+
+    //путь считается от конца contextPath
+    @Test
+    void matchesFromOffset() {
+        String contextPath = "/api";
+
+        assertThat(matcher.matches(contextPath + "/auth/login", contextPath.length())).isTrue();
+        assertThat(matcher.matches(contextPath + "/actuator/health", contextPath.length())).isTrue();
+        assertThat(matcher.matches(contextPath + "/actuatorX", contextPath.length())).isFalse();
+        assertThat(matcher.matches(contextPath + "/users", contextPath.length())).isFalse();
+    }
+
+    @Test
+    void rootWildcardMatchesEverything() {
+        PublicPathMatcher all = new PublicPathMatcher(List.of("/**"));
+
+        assertThat(all.matches("/", 0)).isTrue();
+        assertThat(all.matches("/users/1", 0)).isTrue();
+    }
+
+    @Test
+    void emptyListMatchesNothing() {
+        assertThat(new PublicPathMatcher(List.of()).matches("/auth/login", 0)).isFalse();
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"auth/login", "/auth/*", "/auth/**/login", "/actuator*"})
+    void rejectsUnsupportedPatterns(String pattern) {
+        assertThatThrownBy(() -> new PublicPathMatcher(List.of(pattern)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -0,0 +1,108 @@
+package ru.practicum.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RevokedTokenStoreTest {
+
+    private static final int THREADS = 4;
+    private static final int REVOCATIONS_PER_THREAD = 25_000;
+
+    @Test
+    void revokedJtiIsFoundUntilExpiration() {
+        RevokedTokenStore store = RevokedTokenStore.empty();
+        Instant expiresAt = Instant.now().plusSeconds(600);
+
+        store.revoke("jti-1", expiresAt);
+
+        assertThat(store.isRevoked("jti-1")).isTrue();
+        assertThat(store.isRevoked("jti-2")).isFalse();
+        assertThat(store.isRevoked((String) null)).isFalse();
+        //отзыв уже просроченного токена ничего не хранит
+        store.revoke("jti-3", Instant.now().minusSeconds(1));
+        assertThat(store.isRevoked("jti-3")).isFalse();
+        assertThat(store.size()).isEqualTo(1);
+    }
+
+    @Test
+    void purgeKeepsLiveEntries() {
+        RevokedTokenStore store = new RevokedTokenStore(16, 0.01);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        for (int i = 0; i < 100; i++) {
+            store.revoke("jti-" + i, expiresAt);
+        }
+
+        assertThat(store.purgeExpired()).isZero();
+        for (int i = 0; i < 100; i++) {
+            assertThat(store.isRevoked("jti-" + i)).isTrue();
+        }
+    }
+
+    //отдельный поток пересобирает фильтр без пауз: jti должен быть виден сразу после возврата из revoke
+    //(в том числе между публикацией нового фильтра и концом пересборки) и после окончания всех пересборок
+    @Test
+    void revokeDuringPurgeIsNeverLost() throws Exception {
+        RevokedTokenStore store = new RevokedTokenStore(1024, 0.01);
+        Instant expiresAt = Instant.now().plusSeconds(600);
+        Queue<String> lost = new ConcurrentLinkedQueue<>();
+        AtomicBoolean running = new AtomicBoolean(true);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS + 1);
+        try {
+            Future<?> purger = executor.submit(() -> {
+                start.await();
+                while (running.get()) {
+                    store.purgeExpired();
+                }
+                return null;
+            });
+
+            List<Future<?>> revokers = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                revokers.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < REVOCATIONS_PER_THREAD; i++) {
+                        String jti = thread + "-" + i;
+                        store.revoke(jti, expiresAt);
+                        if (!store.isRevoked(jti)) {
+                            lost.add(jti);
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> revoker : revokers) {
+                revoker.get(60, TimeUnit.SECONDS);
+            }
+            running.set(false);
+            purger.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(lost).isEmpty();
+        assertThat(store.size()).isEqualTo(THREADS * REVOCATIONS_PER_THREAD);
+        for (int t = 0; t < THREADS; t++) {
+            for (int i = 0; i < REVOCATIONS_PER_THREAD; i++) {
+                assertThat(store.isRevoked(t + "-" + i)).as("jti %d-%d", t, i).isTrue();
+            }
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ru.practicum.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SecurityErrorResponseTest {
+
+    private static final String MESSAGE = "Token \"abc\\def\"\n\tis invalid: ключ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void servletResponseIsValidJsonWithEscapedMessage() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        SecurityErrorResponse.write(response, 401, "Unauthorized", MESSAGE);
+
+        byte[] body = response.getContentAsByteArray();
+        assertThat(response.getStatus()).isEqualTo(401);
+        assertThat(response.getContentType()).isEqualTo("application/json;charset=UTF-8");
+        assertThat(response.getContentLength()).isEqualTo(body.length);
+        assertFields(objectMapper.readTree(body), 401, "Unauthorized", MESSAGE);
+    }
+
+    @Test
+    void reactiveResponseMatchesServletOne() throws Exception {
+        MockServerHttpResponse response = new MockServerHttpResponse();
+
+        SecurityErrorResponse.write(response, 403, "Forbidden", MESSAGE).block();
+
+        String body = response.getBodyAsString().block();
+        assertThat(response.getStatusCode()).isEqualTo(HttpStatus.FORBIDDEN);
+        assertThat(response.getHeaders().getContentLength())
+                .isEqualTo(body.getBytes(StandardCharsets.UTF_8).length);
+        assertFields(objectMapper.readTree(body), 403, "Forbidden", MESSAGE);
+    }
+
+    @Test
+    void messageIsOptional() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        SecurityErrorResponse.of(429, "Too Many Requests").write(response);
+
+        JsonNode json = objectMapper.readTree(response.getContentAsByteArray());
+        assertThat(json.has("message")).isFalse();
+        assertThat(json.get("error").asText()).isEqualTo("Too Many Requests");
+    }
+
+    private static void assertFields(JsonNode json, int status, String error, String message) {
+        assertThat(json.get("error").asText()).isEqualTo(error);
+        assertThat(json.get("status").asInt()).isEqualTo(status);
+        assertThat(json.get("message").asText()).isEqualTo(message);
+        assertThat(Instant.parse(json.get("timestamp").asText())).isBeforeOrEqualTo(Instant.now());
+    }
+}
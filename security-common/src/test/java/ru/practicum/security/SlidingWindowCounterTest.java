@@ -0,0 +1,97 @@
+package ru.practicum.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlidingWindowCounterTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void countsEventsPerKey() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 100);
+
+        counter.increment("a@example.com");
+        counter.increment("a@example.com");
+        counter.increment("b@example.com");
+
+        assertThat(counter.count("a@example.com")).isEqualTo(2.0);
+        assertThat(counter.count("b@example.com")).isEqualTo(1.0);
+        assertThat(counter.count("c@example.com")).isZero();
+    }
+
+    @Test
+    void resetForgetsKey() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 100);
+        counter.increment("a@example.com");
+
+        counter.reset("a@example.com");
+
+        assertThat(counter.count("a@example.com")).isZero();
+        assertThat(counter.remainingNanos("a@example.com")).isZero();
+    }
+
+    @Test
+    void remainingTimeIsWithinWindow() {
+        SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 100);
+        counter.increment("a@example.com");
+
+        assertThat(counter.remainingNanos("a@example.com")).isPositive().isLessThanOrEqualTo(HOUR.toNanos());
+    }
+
+    //предыдущее окно учитывается с убывающим весом, через два окна счетчик пуст
+    @Test
+    void previousWindowDecays() throws InterruptedException {
+        SlidingWindowCounter counter = new SlidingWindowCounter(Duration.ofMillis(100), 100);
+        for (int i = 0; i < 4; i++) {
+            counter.increment("a@example.com");
+        }
+
+        Thread.sleep(120);
+        double decayed = counter.count("a@example.com");
+        assertThat(decayed).isGreaterThanOrEqualTo(0.0).isLessThan(4.0);
+
+        Thread.sleep(200);
+        assertThat(counter.count("a@example.com")).isZero();
+    }
+
+    @Test
+    void concurrentIncrementsAreNotLost() throws Exception {
+        int threads = 8;
+        int perThread = 1_000;
+        SlidingWindowCounter counter = new SlidingWindowCounter(HOUR, 100);
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perThread; i++) {
+                        counter.increment("a@example.com");
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(counter.count("a@example.com")).isEqualTo((double) threads * perThread);
+    }
+}
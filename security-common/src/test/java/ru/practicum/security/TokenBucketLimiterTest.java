@@ -0,0 +1,106 @@
+package ru.practicum.security;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenBucketLimiterTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void allowsBurstThenReportsWait() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(3, HOUR, 100);
+
+        assertThat(limiter.tryAcquire("ip")).isZero();
+        assertThat(limiter.tryAcquire("ip")).isZero();
+        assertThat(limiter.tryAcquire("ip")).isZero();
+
+        //следующий токен - через refillPeriod / capacity
+        long wait = limiter.tryAcquire("ip");
+        assertThat(wait).isPositive().isLessThanOrEqualTo(HOUR.dividedBy(3).toNanos());
+    }
+
+    @Test
+    void refusedAttemptDoesNotConsumeToken() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, HOUR, 100);
+        limiter.tryAcquire("ip");
+
+        long first = limiter.tryAcquire("ip");
+        long second = limiter.tryAcquire("ip");
+
+        assertThat(second).isPositive().isLessThanOrEqualTo(first);
+    }
+
+    @Test
+    void keysAreIndependent() {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(1, HOUR, 100);
+
+        assertThat(limiter.tryAcquire("a")).isZero();
+        assertThat(limiter.tryAcquire("a")).isPositive();
+        assertThat(limiter.tryAcquire("b")).isZero();
+    }
+
+    @Test
+    void refillsOverTime() throws InterruptedException {
+        TokenBucketLimiter limiter = new TokenBucketLimiter(2, Duration.ofMillis(100), 100);
+        limiter.tryAcquire("ip");
+        limiter.tryAcquire("ip");
+        assertThat(limiter.tryAcquire("ip")).isPositive();
+
+        Thread.sleep(120);
+
+        assertThat(limiter.tryAcquire("ip")).isZero();
+    }
+
+    //CAS по одному ключу: из параллельных попыток проходит ровно capacity
+    @Test
+    void concurrentAcquiresNeverExceedCapacity() throws Exception {
+        int capacity = 100;
+        int threads = 8;
+        TokenBucketLimiter limiter = new TokenBucketLimiter(capacity, HOUR, 100);
+        AtomicInteger allowed = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < capacity; i++) {
+                        if (limiter.tryAcquire("ip") == 0) {
+                            allowed.incrementAndGet();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertThat(allowed).hasValue(capacity);
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThatThrownBy(() -> new TokenBucketLimiter(0, HOUR, 10))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}